@@ -24,6 +24,12 @@ repositories {
 
 val languageServer by configurations.creating
 
+// JMH benchmarks for the java bridge, they run against a light IntelliJ test fixture so they share the test classpath.
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.test.get().compileClasspath
+    runtimeClasspath += output + compileClasspath + sourceSets.test.get().runtimeClasspath
+}
+
 dependencies {
     implementation(kotlin("stdlib-jdk8"))
     implementation("com.github.ballerina-platform:lsp4intellij:master-SNAPSHOT")
@@ -34,6 +40,9 @@ dependencies {
     languageServer("org.springframework.ide.vscode:spring-boot-language-server:1.32.0-SNAPSHOT:exec") {
         isTransitive = false
     }
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.33")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.33")
 }
 
 // See https://github.com/JetBrains/gradle-intellij-plugin/
@@ -114,6 +123,23 @@ release {
     buildTasks = arrayListOf("buildPlugin")
 }
 
+// ./gradlew jmh -Pjmh.includes=JvmBindings
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the java bridge JMH benchmarks with the gc profiler."
+    dependsOn(tasks.named("jmhClasses"), tasks.named("prepareTestingSandbox"))
+    mainClass.set("org.openjdk.jmh.Main")
+    val reportFile = file("$buildDir/reports/jmh/results.json")
+    args((findProperty("jmh.includes") ?: ".*").toString(), "-prof", "gc", "-rf", "json", "-rff", reportFile.path)
+    doFirst {
+        // reuse the IDE classpath and system properties which the intellij plugin prepares for the test task.
+        val test = tasks.test.get()
+        classpath = files(jmh.output, jmh.runtimeClasspath, test.classpath)
+        jvmArgs(test.allJvmArgs)
+        reportFile.parentFile.mkdirs()
+    }
+}
+
 tasks {
 
     runIde {
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMember;
+import org.eclipse.lsp4j.jsonrpc.messages.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ide.vscode.commons.protocol.java.TypeData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the java bridge against a synthetic Spring project. Sample time mode reports latency percentiles, run
+ * with {@code -prof gc} (the default of the {@code jmh} gradle task) to get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaBridgeBenchmark {
+    private SyntheticSpringProject project;
+    private TypeProvider typeProvider;
+    private TypeDataCache typeDataCache;
+    private PsiResolver psiResolver;
+    private List<String> typeBindings;
+    private List<String> memberBindings;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        project = new SyntheticSpringProject();
+        project.setUp();
+        typeProvider = new TypeProvider(project.getProject());
+        typeDataCache = TypeDataCache.getInstance(project.getProject());
+        psiResolver = new PsiResolver(project.getProject());
+        typeBindings = project.getBeanBindings();
+        memberBindings = project.getMemberBindings();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        project.tearDown();
+    }
+
+    private String nextOf(List<String> bindings) {
+        next = (next + 1) % bindings.size();
+        return bindings.get(next);
+    }
+
+    @Benchmark
+    public TypeData typeDataForUncached() {
+        final String binding = nextOf(typeBindings);
+        typeDataCache.invalidateAll();
+        return ReadAction.compute(() -> typeProvider.typeDataFor(binding));
+    }
+
+    @Benchmark
+    public TypeData typeDataForCached() {
+        final String binding = nextOf(typeBindings);
+        return ReadAction.compute(() -> typeProvider.typeDataFor(binding));
+    }
+
+    @Benchmark
+    public Tuple.Two<PsiClass, PsiMember> resolvePsiElements() {
+        final String binding = nextOf(memberBindings);
+        return ReadAction.compute(() -> psiResolver.resolvePsiElements(binding));
+    }
+}
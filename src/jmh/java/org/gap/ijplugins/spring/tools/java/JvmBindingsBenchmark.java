@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding keys for all members of a bean, comparing the stream based implementation which {@link JvmBindings} had
+ * before with {@link BindingKeyEncoder}. The {@code gc.alloc.rate.norm} metric of the gc profiler gives the bytes
+ * allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JvmBindingsBenchmark {
+    private SyntheticSpringProject project;
+    private PsiMethod[] methods;
+    private PsiField[] fields;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        project = new SyntheticSpringProject();
+        project.setUp();
+        final PsiResolver resolver = new PsiResolver(project.getProject());
+        ReadAction.run(() -> {
+            final PsiClass psiClass = resolver.findClass(project.getBeanBindings().get(0));
+            methods = psiClass.getMethods();
+            fields = psiClass.getFields();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        project.tearDown();
+    }
+
+    @Benchmark
+    public void legacyBindingKeys(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (PsiMethod method : methods) {
+                blackhole.consume(LegacyJvmBindings.getBindingKey(method));
+            }
+            for (PsiField field : fields) {
+                blackhole.consume(LegacyJvmBindings.getBindingKey(field));
+            }
+        });
+    }
+
+    @Benchmark
+    public void threadLocalBindingKeys(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            for (PsiMethod method : methods) {
+                blackhole.consume(JvmBindings.getBindingKey(method));
+            }
+            for (PsiField field : fields) {
+                blackhole.consume(JvmBindings.getBindingKey(field));
+            }
+        });
+    }
+
+    @Benchmark
+    public void encoderBindingKeys(Blackhole blackhole) {
+        ReadAction.run(() -> {
+            final BindingKeyEncoder encoder = new BindingKeyEncoder();
+            for (PsiMethod method : methods) {
+                blackhole.consume(encoder.methodKey(method));
+            }
+            for (PsiField field : fields) {
+                blackhole.consume(encoder.fieldKey(field));
+            }
+        });
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Light fixture project with a synthetic Spring code base: a deep abstract class hierarchy, a set of service
+ * interfaces and many heavily annotated beans extending the hierarchy.
+ */
+final class SyntheticSpringProject {
+    static final String PACKAGE = "org.example.bench";
+    static final int BEANS = Integer.getInteger("sts4.bench.beans", 300);
+    static final int DEPTH = Integer.getInteger("sts4.bench.depth", 12);
+    static final int INTERFACES = 10;
+    static final int FIELDS = 10;
+    static final int METHODS = 15;
+
+    private final JavaCodeInsightTestFixture fixture;
+    private final List<String> beanBindings = new ArrayList<>();
+    private final List<String> memberBindings = new ArrayList<>();
+
+    SyntheticSpringProject() {
+        final IdeaTestFixtureFactory factory = IdeaTestFixtureFactory.getFixtureFactory();
+        final TestFixtureBuilder<IdeaProjectTestFixture> builder =
+                factory.createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_11);
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(builder.getFixture());
+    }
+
+    void setUp() {
+        EdtTestUtil.runInEdtAndWait(() -> {
+            fixture.setUp();
+            addAnnotations();
+            addHierarchy();
+            for (int i = 0; i < BEANS; i++) {
+                fixture.addClass(bean(i));
+                final String binding = "L" + PACKAGE.replace('.', '/') + "/Bean" + i + ";";
+                beanBindings.add(binding);
+                memberBindings.add(binding + ".handle" + (i % METHODS) + "(LString;I)LString;");
+                memberBindings.add(binding + ".layer0Operation(I)V");
+            }
+        });
+    }
+
+    void tearDown() {
+        EdtTestUtil.runInEdtAndWait(fixture::tearDown);
+    }
+
+    Project getProject() {
+        return fixture.getProject();
+    }
+
+    List<String> getBeanBindings() {
+        return beanBindings;
+    }
+
+    /**
+     * Member bindings of declared and inherited (from the top of the hierarchy) methods.
+     */
+    List<String> getMemberBindings() {
+        return memberBindings;
+    }
+
+    private void addAnnotations() {
+        fixture.addClass("package org.springframework.stereotype; public @interface Service { String value() default \"\"; }");
+        fixture.addClass("package org.springframework.beans.factory.annotation; public @interface Autowired { boolean required() default true; }");
+        fixture.addClass("package org.springframework.beans.factory.annotation; public @interface Value { String value(); }");
+        fixture.addClass("package org.springframework.web.bind.annotation; public enum RequestMethod { GET, POST, PUT, DELETE }");
+        fixture.addClass("package org.springframework.web.bind.annotation; public @interface RequestMapping { "
+                + "String[] path() default {}; RequestMethod[] method() default {}; String[] produces() default {}; }");
+        fixture.addClass("package org.springframework.transaction.annotation; public @interface Transactional { "
+                + "Class<?>[] rollbackFor() default {}; boolean readOnly() default false; int timeout() default -1; }");
+    }
+
+    private void addHierarchy() {
+        for (int i = 0; i < INTERFACES; i++) {
+            fixture.addClass("package " + PACKAGE + "; public interface Service" + i + " { String describe" + i + "(); }");
+        }
+        for (int i = 0; i < DEPTH; i++) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append("package ").append(PACKAGE).append(";\n");
+            sb.append("public abstract class Layer").append(i);
+            if (i > 0) {
+                sb.append(" extends Layer").append(i - 1);
+            }
+            sb.append(" {\n");
+            sb.append("  protected java.util.Map<String, java.util.List<Integer>> layer").append(i).append("State;\n");
+            sb.append("  public void layer").append(i).append("Operation(int value) {}\n");
+            sb.append("  protected String[][] layer").append(i).append("Matrix(long a, double[] b) { return null; }\n");
+            sb.append("}\n");
+            fixture.addClass(sb.toString());
+        }
+    }
+
+    private static String bean(int index) {
+        final StringBuilder sb = new StringBuilder(4096);
+        sb.append("package ").append(PACKAGE).append(";\n");
+        sb.append("import org.springframework.stereotype.Service;\n");
+        sb.append("import org.springframework.beans.factory.annotation.*;\n");
+        sb.append("import org.springframework.web.bind.annotation.*;\n");
+        sb.append("import org.springframework.transaction.annotation.Transactional;\n");
+        sb.append("@Service(\"bean").append(index).append("\")\n");
+        sb.append("@RequestMapping(path = {\"/bean").append(index).append("\", \"/alias").append(index)
+                .append("\"}, method = {RequestMethod.GET, RequestMethod.POST}, produces = \"application/json\")\n");
+        sb.append("@Transactional(rollbackFor = {RuntimeException.class, Exception.class}, readOnly = true, timeout = 30)\n");
+        sb.append("public class Bean").append(index).append(" extends Layer").append(DEPTH - 1)
+                .append(" implements Service").append(index % INTERFACES).append(" {\n");
+        for (int f = 0; f < FIELDS; f++) {
+            sb.append("  @Autowired(required = false) @Value(\"${bean").append(index).append(".field").append(f)
+                    .append(":default}\")\n");
+            sb.append("  private String field").append(f).append(";\n");
+        }
+        for (int m = 0; m < METHODS; m++) {
+            sb.append("  @RequestMapping(path = \"/handle").append(m).append("\", method = RequestMethod.GET)\n");
+            sb.append("  @Transactional(timeout = ").append(m).append(")\n");
+            sb.append("  public String handle").append(m).append("(String input, int count) { return input; }\n");
+        }
+        sb.append("  public String describe").append(index % INTERFACES).append("() { return \"bean\"; }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
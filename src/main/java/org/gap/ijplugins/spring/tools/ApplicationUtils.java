@@ -25,9 +25,16 @@
 package org.gap.ijplugins.spring.tools;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 public final class ApplicationUtils {
@@ -41,4 +48,23 @@ public final class ApplicationUtils {
     public static <T> Future<T> executeOnIntellijPooledThread(Callable<T> callable) {
         return ApplicationManager.getApplication().executeOnPooledThread(callable);
     }
+
+    /**
+     * Computes the given callable on the executor inside a non blocking read action, which is cancelled and restarted
+     * when a write action is requested instead of holding it back. Cancelling the returned future cancels the
+     * computation.
+     */
+    public static <T> CompletableFuture<T> computeInNonBlockingReadAction(Project project, Executor executor,
+                                                                        Callable<T> callable) {
+        final ProgressIndicator indicator = new EmptyProgressIndicator();
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> ProgressManager.getInstance()
+                .runProcess(() -> ReadAction.nonBlocking(callable).expireWith(project).executeSynchronously(),
+                        indicator), executor);
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                indicator.cancel();
+            }
+        });
+        return future;
+    }
 }
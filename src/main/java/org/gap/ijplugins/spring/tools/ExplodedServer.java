@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.google.common.hash.Hashing;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+/**
+ * The language server fat jar extracted under the IDE system directory, so that it can be launched with a plain
+ * classpath and its main class instead of reading nested jars through the spring boot JarLauncher. An extraction is
+ * reused until the server jar changes.
+ * <p>
+ * The application classes are packed into a jar of their own and the classpath lists every jar explicitly, following
+ * {@code BOOT-INF/classpath.idx} when present, since class data sharing refuses to dump archives for a classpath with
+ * directories or wildcards in it.
+ */
+final class ExplodedServer {
+    private static final Logger LOGGER = Logger.getInstance(ExplodedServer.class);
+    static final boolean ENABLED = Boolean.getBoolean("sts4.server.exploded");
+
+    private static final String START_CLASS = "Start-Class";
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIB = "BOOT-INF/lib/";
+    private static final String CLASSPATH_INDEX = "BOOT-INF/classpath.idx";
+    private static final String APPLICATION_JAR = "application.jar";
+    private static final String MAIN_CLASS_FILE = "main-class";
+    private static final String CLASSPATH_FILE = "classpath";
+
+    private final Path directory;
+    private final String mainClass;
+    private final List<String> classpath;
+
+    private ExplodedServer(Path directory, String mainClass, List<String> classpath) {
+        this.directory = directory;
+        this.mainClass = mainClass;
+        this.classpath = classpath;
+    }
+
+    String getClasspath() {
+        return classpath.stream().map(e -> directory.resolve(e).toString())
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    String getMainClass() {
+        return mainClass;
+    }
+
+    static Optional<ExplodedServer> extract(Path serverJar) {
+        final Path parent = Paths.get(PathManager.getSystemPath(), "sts4", "server");
+        try {
+            final Path directory = parent.resolve(extractionKey(serverJar));
+            final Path mainClassFile = directory.resolve(MAIN_CLASS_FILE);
+            if (Files.isRegularFile(mainClassFile)) {
+                return Optional.of(new ExplodedServer(directory,
+                        new String(Files.readAllBytes(mainClassFile), StandardCharsets.UTF_8),
+                        Files.readAllLines(directory.resolve(CLASSPATH_FILE), StandardCharsets.UTF_8)));
+            }
+
+            Files.createDirectories(parent);
+            deleteExtractions(parent);
+            LOGGER.info("Extracting language server into " + directory);
+            final Path temp = Files.createTempDirectory(parent, "extract");
+            try {
+                final List<String> classpath = new ArrayList<>();
+                final String mainClass = extractTo(serverJar, temp, classpath);
+                Files.write(temp.resolve(CLASSPATH_FILE), classpath, StandardCharsets.UTF_8);
+                // written last, it marks a complete extraction.
+                Files.write(temp.resolve(MAIN_CLASS_FILE), mainClass.getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+                return Optional.of(new ExplodedServer(directory, mainClass, classpath));
+            } finally {
+                if (Files.exists(temp)) {
+                    FileUtil.delete(temp.toFile());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.warn("Failed to extract the language server, launching the server jar", e);
+            return Optional.empty();
+        }
+    }
+
+    private static String extractTo(Path serverJar, Path target, List<String> classpath) throws IOException {
+        try (JarFile jarFile = new JarFile(serverJar.toFile());
+             JarOutputStream application = new JarOutputStream(
+                     Files.newOutputStream(target.resolve(APPLICATION_JAR)))) {
+            final String mainClass = Optional.ofNullable(jarFile.getManifest()).map(Manifest::getMainAttributes)
+                    .map(a -> a.getValue(START_CLASS))
+                    .orElseThrow(() -> new IllegalStateException("No " + START_CLASS + " in " + serverJar));
+
+            final TreeSet<String> libraries = new TreeSet<>();
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith(CLASSES) && entry.getName().length() > CLASSES.length()) {
+                    application.putNextEntry(new JarEntry(entry.getName().substring(CLASSES.length())));
+                    if (!entry.isDirectory()) {
+                        try (InputStream in = jarFile.getInputStream(entry)) {
+                            in.transferTo(application);
+                        }
+                    }
+                    application.closeEntry();
+                } else if (!entry.isDirectory() && entry.getName().startsWith(LIB)) {
+                    final Path file = target.resolve(entry.getName()).normalize();
+                    if (!file.startsWith(target)) {
+                        throw new IOException("Entry outside of the extraction directory " + entry.getName());
+                    }
+                    Files.createDirectories(file.getParent());
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        Files.copy(in, file);
+                    }
+                    libraries.add(entry.getName());
+                }
+            }
+
+            classpath.add(APPLICATION_JAR);
+            final JarEntry index = jarFile.getJarEntry(CLASSPATH_INDEX);
+            if (index != null) {
+                try (InputStream in = jarFile.getInputStream(index)) {
+                    classpath.addAll(readClasspathIndex(in, libraries));
+                }
+            }
+            // libraries missing from the index, or all of them without one, follow in name order.
+            libraries.removeAll(classpath);
+            classpath.addAll(libraries);
+            return mainClass;
+        }
+    }
+
+    /**
+     * Reads the library entries of a {@code classpath.idx}, which lists them one per line as {@code - "<entry>"}.
+     */
+    private static List<String> readClasspathIndex(InputStream in, TreeSet<String> libraries) throws IOException {
+        final List<String> result = new ArrayList<>();
+        for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+            final String trimmed = line.trim();
+            if (trimmed.startsWith("- \"") && trimmed.endsWith("\"")) {
+                final String library = trimmed.substring(3, trimmed.length() - 1);
+                if (libraries.contains(library)) {
+                    result.add(library);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String extractionKey(Path serverJar) throws IOException {
+        return Hashing.murmur3_128().newHasher()
+                .putString(serverJar.toAbsolutePath().toString(), StandardCharsets.UTF_8)
+                .putLong(Files.size(serverJar))
+                .putLong(Files.getLastModifiedTime(serverJar).toMillis())
+                .hash().toString();
+    }
+
+    private static void deleteExtractions(Path parent) throws IOException {
+        try (DirectoryStream<Path> extractions = Files.newDirectoryStream(parent)) {
+            for (Path extraction : extractions) {
+                FileUtil.delete(extraction.toFile());
+            }
+        }
+    }
+}
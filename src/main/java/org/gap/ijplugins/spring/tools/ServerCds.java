@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manages a dynamic AppCDS archive for the language server under the IDE system directory. The first launch records
+ * the loaded classes into the archive when the server exits, later launches map it to skip class loading. The archive
+ * is keyed by the server jar, the launch classpath and the JVM, so a change of either records a new one.
+ * <p>
+ * The arguments are decided per launch. Only one server at a time records a missing archive, the servers started
+ * until it stops run without one, so that no two servers write the same archive.
+ */
+final class ServerCds {
+    private static final Logger LOGGER = Logger.getInstance(ServerCds.class);
+    private static final boolean ENABLED = Boolean.getBoolean("sts4.server.cds");
+    // dynamic archives are supported since JDK 13.
+    private static final int MIN_FEATURE_VERSION = 13;
+    private static final String ARCHIVE_AT_EXIT = "-XX:ArchiveClassesAtExit=";
+
+    private static final Set<String> recordings = ConcurrentHashMap.newKeySet();
+
+    private ServerCds() {
+    }
+
+    static List<String> jvmArgs(Path serverJar, String launchClasspath) {
+        if (!ENABLED || Runtime.version().feature() < MIN_FEATURE_VERSION) {
+            return ImmutableList.of();
+        }
+
+        try {
+            final Path directory = Paths.get(PathManager.getSystemPath(), "sts4", "cds");
+            final String key = archiveKey(serverJar, launchClasspath);
+            final Path archive = directory.resolve(key + ".jsa");
+            if (Files.isRegularFile(archive)) {
+                return ImmutableList.of("-XX:SharedArchiveFile=" + archive);
+            }
+            if (!recordings.add(archive.toString())) {
+                LOGGER.debug("Class data sharing archive is being recorded by another server, launching without it");
+                return ImmutableList.of();
+            }
+
+            Files.createDirectories(directory);
+            deleteArchives(directory);
+            LOGGER.info("Recording language server class data sharing archive " + archive);
+            return ImmutableList.of(ARCHIVE_AT_EXIT + archive);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to prepare class data sharing archive, launching without it", e);
+            return ImmutableList.of();
+        }
+    }
+
+    /**
+     * Must be called once the server launched with the given command stopped, so that a later launch may record the
+     * archive again if this one did not write it.
+     */
+    static void serverStopped(List<String> command) {
+        command.stream().filter(a -> a.startsWith(ARCHIVE_AT_EXIT))
+                .forEach(a -> recordings.remove(a.substring(ARCHIVE_AT_EXIT.length())));
+    }
+
+    private static String archiveKey(Path serverJar, String launchClasspath) throws IOException {
+        return Hashing.murmur3_128().newHasher()
+                .putString(serverJar.toAbsolutePath().toString(), StandardCharsets.UTF_8)
+                .putLong(Files.size(serverJar))
+                .putLong(Files.getLastModifiedTime(serverJar).toMillis())
+                .putString(launchClasspath, StandardCharsets.UTF_8)
+                .putString(System.getProperty("java.home"), StandardCharsets.UTF_8)
+                .putString(System.getProperty("java.vm.version"), StandardCharsets.UTF_8)
+                .hash().toString();
+    }
+
+    private static void deleteArchives(Path directory) throws IOException {
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(directory, "*.jsa")) {
+            for (Path archive : archives) {
+                try {
+                    Files.deleteIfExists(archive);
+                } catch (IOException e) {
+                    // an archive still mapped by a running server cannot be deleted on every platform.
+                    LOGGER.debug("Failed to delete class data sharing archive " + archive, e);
+                }
+            }
+        }
+    }
+}
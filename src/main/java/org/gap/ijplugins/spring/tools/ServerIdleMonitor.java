@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.wso2.lsp4intellij.IntellijLanguageClient;
+import org.wso2.lsp4intellij.client.languageserver.ServerStatus;
+import org.wso2.lsp4intellij.client.languageserver.wrapper.LanguageServerWrapper;
+import org.wso2.lsp4intellij.utils.FileUtils;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.executeOnIntellijPooledThread;
+
+/**
+ * Stops language servers which have had no connected files for the idle timeout. A stopped server is started again
+ * by the next file that connects to it.
+ */
+final class ServerIdleMonitor {
+    private static final Logger LOGGER = Logger.getInstance(ServerIdleMonitor.class);
+    private static final long IDLE_TIMEOUT = Long.getLong("sts4.server.idle-timeout", TimeUnit.MINUTES.toMillis(10));
+
+    // only accessed from the scheduled check, which never runs concurrently with itself.
+    private final Map<LanguageServerWrapper, Long> idleSince = new WeakHashMap<>();
+
+    private ServerIdleMonitor() {
+    }
+
+    static void start() {
+        if (IDLE_TIMEOUT <= 0) {
+            return;
+        }
+        final ServerIdleMonitor monitor = new ServerIdleMonitor();
+        final long period = Math.min(IDLE_TIMEOUT, TimeUnit.MINUTES.toMillis(1));
+        AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(monitor::check, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void check() {
+        try {
+            final long now = System.currentTimeMillis();
+            for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+                for (LanguageServerWrapper wrapper : IntellijLanguageClient
+                        .getAllServerWrappersFor(FileUtils.projectToUri(project))) {
+                    if (wrapper.getStatus() != ServerStatus.INITIALIZED || !wrapper.getConnectedFiles().isEmpty()) {
+                        idleSince.remove(wrapper);
+                        continue;
+                    }
+
+                    final long since = idleSince.computeIfAbsent(wrapper, w -> now);
+                    if (now - since >= IDLE_TIMEOUT) {
+                        LOGGER.info("Stopping idle language server of project " + project.getName());
+                        idleSince.remove(wrapper);
+                        // stopping waits for the shutdown request, which must not block the EDT.
+                        executeOnIntellijPooledThread(() -> {
+                            if (wrapper.getConnectedFiles().isEmpty()) {
+                                wrapper.stop(false);
+                            }
+                            return null;
+                        });
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to check for idle language servers", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+public final class SpringModules {
+    private static final Predicate<? super VirtualFile> SPRING_PREDICATE =
+            f -> f.getPath().contains("spring-core") || f.getPath().contains("spring-boot");
+    private static final Key<CachedValue<Boolean>> SPRING_MODULE = Key.create("sts.spring.module");
+
+    private SpringModules() {
+    }
+
+    /**
+     * Returns whether spring is on the library classpath of the module. The verdict is cached on the module until the
+     * project roots change. Must be called within a read action.
+     */
+    public static boolean isSpringModule(Module module) {
+        return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, SPRING_MODULE,
+                () -> CachedValueProvider.Result.create(hasSpringLibrary(module),
+                        ProjectRootManager.getInstance(module.getProject())), false);
+    }
+
+    private static boolean hasSpringLibrary(Module module) {
+        return Arrays.stream(ModuleRootManager.getInstance(module).orderEntries().librariesOnly().classes().getRoots())
+                .anyMatch(SPRING_PREDICATE);
+    }
+}
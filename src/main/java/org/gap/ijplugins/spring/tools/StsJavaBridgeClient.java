@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
+import org.gap.ijplugins.spring.tools.java.JavaBatchData;
+import org.gap.ijplugins.spring.tools.java.JavaBatchParams;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Java bridge requests served by this client on top of the ones defined by the STS4 protocol.
+ */
+public interface StsJavaBridgeClient {
+
+    /**
+     * Resolves types and locations for a list of binding keys within a single read action.
+     */
+    @JsonRequest("sts/javaBatchResolve")
+    CompletableFuture<List<JavaBatchData>> javaBatchResolve(JavaBatchParams params);
+}
@@ -24,9 +24,9 @@
 
 package org.gap.ijplugins.spring.tools;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
@@ -38,23 +38,26 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiMember;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.PsiShortNamesCache;
 import com.intellij.psi.search.searches.ClassInheritorsSearch;
 import com.intellij.psi.util.ClassUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.MarkupContent;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Tuple;
-import org.gap.ijplugins.spring.tools.highlight.HighlightProcessor;
-import org.gap.ijplugins.spring.tools.highlight.InlayHighlightProcessor;
-import org.gap.ijplugins.spring.tools.highlight.RangeHighlightProcessor;
+import org.gap.ijplugins.spring.tools.highlight.HighlightUpdater;
+import org.gap.ijplugins.spring.tools.highlight.PreparedHighlight;
 import org.gap.ijplugins.spring.tools.java.ClasspathListener;
+import org.gap.ijplugins.spring.tools.java.JavaBatchData;
+import org.gap.ijplugins.spring.tools.java.JavaBatchParams;
 import org.gap.ijplugins.spring.tools.java.JavaUtils;
+import org.gap.ijplugins.spring.tools.java.PackageSearch;
 import org.gap.ijplugins.spring.tools.java.PsiResolver;
 import org.gap.ijplugins.spring.tools.java.TypeDescriptorProvider;
 import org.gap.ijplugins.spring.tools.java.TypeProvider;
+import org.gap.ijplugins.spring.tools.java.TypeSearch;
 import org.springframework.ide.vscode.commons.protocol.CursorMovement;
 import org.springframework.ide.vscode.commons.protocol.HighlightParams;
 import org.springframework.ide.vscode.commons.protocol.STS4LanguageClient;
@@ -74,20 +77,29 @@ import org.wso2.lsp4intellij.utils.FileUtils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.computeInNonBlockingReadAction;
 import static org.gap.ijplugins.spring.tools.ApplicationUtils.runReadAction;
 
-class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageClient {
+class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageClient, StsJavaBridgeClient {
 
     private static final Logger LOGGER = Logger.getInstance(StsLanguageClient.class);
+    private static final int JAVA_BRIDGE_THREADS = Integer.getInteger("sts4.java.bridge-threads",
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
 
-    private final List<HighlightProcessor> processors;
+    private final HighlightUpdater highlightUpdater;
 
     private final Map<String, ClasspathListener> classpathListenerMap = new HashMap<>();
 
@@ -97,18 +109,74 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
 
     private final PsiResolver psiResolver;
 
+    private final TypeSearch typeSearch;
+
+    private final PackageSearch packageSearch;
+
+    // java bridge requests are computed here so that the lsp4j message reader thread never waits on read locks.
+    private final ExecutorService javaBridgeExecutor;
+
+    private final AtomicBoolean scanFoldersSent = new AtomicBoolean();
+
+    private final Map<String, HighlightParams> pendingHighlights = new ConcurrentHashMap<>();
+
     public StsLanguageClient(ClientContext clientContext) {
         super(clientContext);
-        processors = ImmutableList.of(new RangeHighlightProcessor(), new InlayHighlightProcessor());
+        highlightUpdater = HighlightUpdater.getInstance(clientContext.getProject());
         typeProvider = new TypeProvider(clientContext.getProject());
         typeDescriptorProvider = new TypeDescriptorProvider();
         psiResolver = new PsiResolver(clientContext.getProject());
+        typeSearch = new TypeSearch(clientContext.getProject());
+        packageSearch = PackageSearch.getInstance(clientContext.getProject());
+        javaBridgeExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("STS Java Bridge",
+                JAVA_BRIDGE_THREADS);
     }
-    private void processHighlights(HighlightParams params, String documentUri, Editor editor,
-                                   Document document) {
-        processors.forEach(p -> p.preProcess(documentUri, editor));
-        params.getCodeLenses()
-                .forEach(l -> processors.forEach(p -> p.process(documentUri, l, editor)));
+
+    private <T> CompletableFuture<T> computeAsync(Callable<T> callable) {
+        return computeInNonBlockingReadAction(getContext().getProject(), javaBridgeExecutor, callable);
+    }
+    private void processHighlights(List<PreparedHighlight> highlights, String documentUri, Editor editor) {
+        final long start = System.nanoTime();
+        highlightUpdater.update(documentUri, editor, highlights);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Applied " + highlights.size() + " highlights to " + documentUri + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        }
+    }
+
+    private void scheduleHighlights(String documentUri) {
+        final HighlightParams params = pendingHighlights.get(documentUri);
+        // the document may have been reopened in another editor since the notification arrived.
+        final EditorEventManager editorEventManager = getContext().getEditorEventManagerFor(documentUri);
+        if (params == null) {
+            return;
+        }
+        if (editorEventManager == null || editorEventManager.editor == null) {
+            pendingHighlights.remove(documentUri, params);
+            return;
+        }
+
+        final Editor editor = editorEventManager.editor;
+        final Document document = editor.getDocument();
+        // offsets are computed in a background read action, which is restarted if the document changes before the
+        // prepared highlights reach the EDT.
+        ReadAction.nonBlocking(() -> HighlightUpdater.prepare(document, params.getCodeLenses()))
+                .expireWith(getContext().getProject())
+                .finishOnUiThread(ModalityState.defaultModalityState(), highlights -> {
+                    if (!pendingHighlights.remove(documentUri, params)) {
+                        // a newer notification replaced this one while it was prepared.
+                        scheduleHighlights(documentUri);
+                    } else if (!editor.isDisposed()) {
+                        processHighlights(highlights, documentUri, editor);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService())
+                .onError(e -> {
+                    // failed, cancelled or expired, the document must not stay pending or no later update applies.
+                    if (!pendingHighlights.remove(documentUri, params) && !getContext().getProject().isDisposed()) {
+                        scheduleHighlights(documentUri);
+                    }
+                });
     }
 
 
@@ -127,10 +195,10 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
             return;
         }
 
-        final Document document = editorEventManager.editor.getDocument();
-        ApplicationManager.getApplication()
-                .invokeLater(
-                        () -> processHighlights(params, documentUri, editorEventManager.editor, document));
+        // only the newest notification of a document is applied, an update is scheduled when none is pending yet.
+        if (pendingHighlights.put(documentUri, params) == null) {
+            scheduleHighlights(documentUri);
+        }
     }
 
     @Override
@@ -143,6 +211,10 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
         ClasspathListener classpathListener = ClasspathListener.from(params, getContext().getProject());
         classpathListenerMap.put(params.getCallbackCommandId(), classpathListener);
         ForkJoinPool.commonPool().execute(() -> classpathListener.register(getContext().getRequestManager()));
+        // the first classpath listener tells that the server is up and ready for the xml file list.
+        if (scanFoldersSent.compareAndSet(false, true)) {
+            StsScanFolders.getInstance(getContext().getProject()).attach(getContext().getRequestManager());
+        }
         return CompletableFuture.completedFuture(new Object());
     }
 
@@ -165,9 +237,7 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
 
     @Override
     public CompletableFuture<TypeData> javaType(JavaDataParams params) {
-        return runReadAction(() -> {
-            return CompletableFuture.completedFuture(typeProvider.typeDataFor(params.getBindingKey()));
-        });
+        return computeAsync(() -> typeProvider.typeDataFor(params.getBindingKey()));
     }
 
     @Override
@@ -188,19 +258,58 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
 
     @Override
     public CompletableFuture<Location> javaLocation(JavaDataParams params) {
-        return CompletableFuture.supplyAsync(() -> runReadAction(() -> {
+        return computeAsync(() -> {
             final Tuple.Two<PsiClass, PsiMember> elements = psiResolver.resolvePsiElements(params.getBindingKey());
             if (elements.getFirst() == null) {
                 LOGGER.warn(String.format("Failed to resolve location for binding %s", params.getBindingKey()));
                 return null;
             }
+            return mapToLocation(elements.getFirst(), elements.getSecond());
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<JavaBatchData>> javaBatchResolve(JavaBatchParams params) {
+        // keys are grouped by their type binding so that each class is looked up only once.
+        return computeAsync(() -> {
+            final Map<String, List<String>> keysByType = new LinkedHashMap<>();
+            params.getBindingKeys().forEach(k -> keysByType.computeIfAbsent(PsiResolver.typeBindingOf(k),
+                    t -> new ArrayList<>()).add(k));
+
+            final PsiManager psiManager = PsiManager.getInstance(getContext().getProject());
+            final List<JavaBatchData> result = new ArrayList<>(params.getBindingKeys().size());
+            keysByType.forEach((typeBinding, keys) -> {
+                final PsiClass psiClass = ClassUtil.findPsiClass(psiManager,
+                        JavaUtils.typeBindingKeyToFqName(typeBinding));
+                final PsiClass sourceClass = psiResolver.toSourceClass(psiClass);
+                for (String key : keys) {
+                    final JavaBatchData data = new JavaBatchData(key);
+                    if (psiClass != null) {
+                        final boolean isType = key.equals(typeBinding);
+                        if (params.isIncludeTypes() && isType) {
+                            data.setType(typeProvider.typeDataFor(psiClass, key));
+                        }
+                        if (params.isIncludeLocations()) {
+                            final PsiMember member = isType ? null
+                                    : psiResolver.resolveMember(sourceClass, key.substring(typeBinding.length() + 1));
+                            data.setLocation(mapToLocation(sourceClass, member));
+                        }
+                    } else {
+                        LOGGER.debug("Failed to resolve class for binding " + key);
+                    }
+                    result.add(data);
+                }
+            });
+            return result;
+        });
+    }
 
-            String url = VfsUtilCore.fixIDEAUrl(elements.getFirst().getContainingFile().getVirtualFile().getUrl());
-            Range range = Optional.ofNullable(elements.getSecond())
-                    .map(this::mapToRange)
-                    .orElseGet(() -> mapToRange(elements.getFirst()));
-            return new Location(url, range);
-        }));
+    private Location mapToLocation(PsiClass psiClass, PsiMember member) {
+        String url = VfsUtilCore.fixIDEAUrl(psiClass.getContainingFile().getVirtualFile().getUrl());
+        Range range = Optional.ofNullable(member)
+                .map(this::mapToRange)
+                .orElseGet(() -> mapToRange(psiClass));
+        return new Location(url, range);
     }
 
     private Range mapToRange(PsiElement element) {
@@ -212,46 +321,39 @@ class StsLanguageClient extends DefaultLanguageClient implements STS4LanguageCli
 
     @Override
     public CompletableFuture<List<TypeDescriptorData>> javaSearchTypes(JavaSearchParams params) {
-        return runReadAction(() -> {
-            return CompletableFuture.completedFuture(typeDescriptorProvider.descriptors(PsiShortNamesCache.getInstance(getContext().getProject())
-                    .getClassesByName(params.getTerm(), GlobalSearchScope.allScope(getContext().getProject()))));
-        });
+        return computeAsync(() -> typeDescriptorProvider.descriptors(typeSearch.search(params.getTerm())));
     }
 
     @Override
     public CompletableFuture<List<String>> javaSearchPackages(JavaSearchParams params) {
-        return CompletableFuture.completedFuture(Collections.emptyList());
+        return CompletableFuture.supplyAsync(() -> packageSearch.search(params.getTerm()), javaBridgeExecutor);
     }
 
     @Override
     public CompletableFuture<List<Either<TypeDescriptorData, TypeData>>> javaSubTypes(JavaTypeHierarchyParams params) {
-        return runReadAction(() -> {
-            return CompletableFuture.completedFuture(findClass(params).map(clazz -> {
-                List<PsiClass> subtypes = Lists.newCopyOnWriteArrayList(ClassInheritorsSearch.search(clazz, true).findAll());
-                if(params.isIncludeFocusType()) {
-                    subtypes.add(clazz);
-                }
-                return typeDescriptorProvider.descriptors(subtypes.toArray(new PsiClass[0]))
-                        .stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
-            }).orElse(Collections.emptyList()));
-        });
+        return computeAsync(() -> findClass(params).map(clazz -> {
+            List<PsiClass> subtypes = Lists.newCopyOnWriteArrayList(ClassInheritorsSearch.search(clazz, true).findAll());
+            if(params.isIncludeFocusType()) {
+                subtypes.add(clazz);
+            }
+            return typeDescriptorProvider.descriptors(subtypes.toArray(new PsiClass[0]))
+                    .stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
+        }).orElse(Collections.emptyList()));
     }
 
     @Override
     public CompletableFuture<List<Either<TypeDescriptorData, TypeData>>> javaSuperTypes(JavaTypeHierarchyParams params) {
-        return runReadAction(() -> {
-            return CompletableFuture.completedFuture(findClass(params).map(clazz -> {
-                List<TypeDescriptorData> descriptors = typeDescriptorProvider.descriptors(clazz.getSupers());
-                if (params.isIncludeFocusType()) {
-                    List<TypeDescriptorData> supers = new ArrayList<>(descriptors.size() + 1);
-                    supers.addAll(typeDescriptorProvider.descriptors(new PsiClass[] { clazz }));
-                    supers.addAll(descriptors);
-                    return supers.stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
-                } else {
-                    return descriptors.stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
-                }
-            }).orElse(Collections.emptyList()));
-        });
+        return computeAsync(() -> findClass(params).map(clazz -> {
+            List<TypeDescriptorData> descriptors = typeDescriptorProvider.descriptors(clazz.getSupers());
+            if (params.isIncludeFocusType()) {
+                List<TypeDescriptorData> supers = new ArrayList<>(descriptors.size() + 1);
+                supers.addAll(typeDescriptorProvider.descriptors(new PsiClass[] { clazz }));
+                supers.addAll(descriptors);
+                return supers.stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
+            } else {
+                return descriptors.stream().map(Either::<TypeDescriptorData, TypeData>forLeft).collect(Collectors.toList());
+            }
+        }).orElse(Collections.emptyList()));
     }
 
     @Override
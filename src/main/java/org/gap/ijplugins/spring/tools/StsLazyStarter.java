@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+
+/**
+ * Starts the language server for the project in lazy start mode once a file of one of its spring modules is opened.
+ */
+public class StsLazyStarter implements FileEditorManagerListener {
+
+    private final Project project;
+
+    public StsLazyStarter(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+        if (!StsPreloadingActivity.LAZY_START || StsPreloadingActivity.isServerStarted(project)) {
+            return;
+        }
+
+        ReadAction.nonBlocking(() -> Optional.ofNullable(ModuleUtilCore.findModuleForFile(file, project))
+                .map(SpringModules::isSpringModule).orElse(false))
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), spring -> {
+                    if (spring && !StsPreloadingActivity.isServerStarted(project)) {
+                        StsPreloadingActivity.startServer(project);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+}
@@ -24,17 +24,22 @@
 
 package org.gap.ijplugins.spring.tools;
 
-import org.wso2.lsp4intellij.client.languageserver.serverdefinition.RawCommandServerDefinition;
 import org.wso2.lsp4intellij.client.languageserver.serverdefinition.ServerListener;
 
 import java.util.Map;
+import java.util.function.Supplier;
 
-public class StsListenableServerDefinition extends RawCommandServerDefinition {
+public class StsListenableServerDefinition extends StsServerDefinition {
 
     public StsListenableServerDefinition(String ext, Map<String, String> languageIds, String[] command) {
         super(ext, languageIds, command);
     }
 
+    public StsListenableServerDefinition(String ext, Map<String, String> languageIds, String[] command,
+                                         Supplier<String[]> launchCommand) {
+        super(ext, languageIds, command, launchCommand);
+    }
+
     @Override
     public ServerListener getServerListener() {
         return new StsServerListener();
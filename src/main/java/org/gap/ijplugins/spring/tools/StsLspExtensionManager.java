@@ -27,10 +27,7 @@ package org.gap.ijplugins.spring.tools;
 import com.intellij.lang.xml.XMLLanguage;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.event.DocumentListener;
-import com.intellij.openapi.module.Module;
 import com.intellij.openapi.roots.FileIndexFacade;
-import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.services.LanguageClient;
@@ -52,17 +49,12 @@ import org.wso2.lsp4intellij.listeners.EditorMouseListenerImpl;
 import org.wso2.lsp4intellij.listeners.EditorMouseMotionListenerImpl;
 import org.wso2.lsp4intellij.listeners.LSPCaretListenerImpl;
 
-import java.util.Arrays;
 import java.util.Optional;
-import java.util.function.Predicate;
 
 import static org.gap.ijplugins.spring.tools.ApplicationUtils.runReadAction;
 
 public class StsLspExtensionManager implements LSPExtensionManager {
 
-    private static final Predicate<? super VirtualFile> SPRING_PREDICATE =
-            f -> f.getPath().contains("spring-core") || f.getPath().contains("spring-boot");
-
     private final StsLanguageValidator stsLanguageValidator = new StsLanguageValidator();
 
     @Override
@@ -91,9 +83,9 @@ public class StsLspExtensionManager implements LSPExtensionManager {
 
     @Override
     public boolean isFileContentSupported(@NotNull PsiFile file) {
-        return runReadAction(() ->
+        return StsPreloadingActivity.isServerStarted(file.getProject()) && runReadAction(() ->
                 Optional.ofNullable(FileIndexFacade.getInstance(file.getProject()).getModuleForFile(file.getVirtualFile()))
-                        .map(this::isSpringModule).orElse(false)) && isSupportedLanguage(file);
+                        .map(SpringModules::isSpringModule).orElse(false)) && isSupportedLanguage(file);
     }
 
     private boolean isSupportedLanguage(PsiFile file) {
@@ -104,11 +96,6 @@ public class StsLspExtensionManager implements LSPExtensionManager {
         return true;
     }
 
-    private boolean isSpringModule(Module module) {
-        return Arrays.stream(ModuleRootManager.getInstance(module).orderEntries().librariesOnly().classes().getRoots())
-                .anyMatch(SPRING_PREDICATE);
-    }
-
     @NotNull
     @Override
     public LSPLabelProvider getLabelProvider() {
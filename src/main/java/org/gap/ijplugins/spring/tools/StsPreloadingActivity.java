@@ -26,14 +26,22 @@ package org.gap.ijplugins.spring.tools;
 
 import com.google.common.base.Strings;
 import com.intellij.openapi.application.PreloadingActivity;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.Key;
 import org.jetbrains.annotations.NotNull;
 import org.wso2.lsp4intellij.IntellijLanguageClient;
+import org.wso2.lsp4intellij.client.languageserver.serverdefinition.RawCommandServerDefinition;
 import org.wso2.lsp4intellij.requests.Timeouts;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -49,6 +57,15 @@ public class StsPreloadingActivity extends PreloadingActivity {
     private static final String PTRN_APPLICATION_YML = "application.*\\.yml";
     private static final String PTRN_CONTEXT_XML = "xml";
     private static final String PTRN_APPLICATION_PROPERTIES = "application.*\\.properties";
+    // in lazy start mode the server is registered by StsLazyStarter once a file of a spring module is opened.
+    static final boolean LAZY_START = Boolean.getBoolean("sts4.server.lazy");
+
+    // the server definition is registered for the whole application, so in lazy start mode each project is only
+    // connected once a file of one of its spring modules was opened.
+    private static final Key<Boolean> SERVER_STARTED = Key.create("sts.server.started");
+
+    private static volatile RawCommandServerDefinition serverDefinition;
+    private static final AtomicBoolean serverRegistered = new AtomicBoolean();
 
     @Override
     public void preload(@NotNull ProgressIndicator progressIndicator) {
@@ -70,7 +87,7 @@ public class StsPreloadingActivity extends PreloadingActivity {
                 Arrays.stream(new String[]{EXT_PTRN_JAVA, PTRN_APPLICATION_YAML, PTRN_APPLICATION_YML, PTRN_CONTEXT_XML,
                         PTRN_APPLICATION_PROPERTIES})).filter(i -> !i.isEmpty()).collect(Collectors.toList());
 
-        IntellijLanguageClient.addServerDefinition(
+        serverDefinition =
                 StsServiceDefinitionBuilder.forExtensions(extensions.stream().collect(Collectors.joining(",")))
                         .withLanguageMapping(EXT_PTRN_JAVA, LANG_ID_JAVA)
                         .withLanguageMapping("yaml", LANG_ID_YAML)
@@ -79,9 +96,51 @@ public class StsPreloadingActivity extends PreloadingActivity {
                         .withLanguageMapping("properties", LANG_ID_PROPERTIES)
                         .withServerListener()
                         //.enableDebugging()
-                        .build());
+                        .build();
 
         StsLspExtensionManager extensionManager = new StsLspExtensionManager();
         extensions.forEach(e -> IntellijLanguageClient.addExtensionManager(e, extensionManager));
+
+        if (LAZY_START) {
+            ServerIdleMonitor.start();
+            // projects which were started before the definition was built are connected now.
+            ApplicationManager.getApplication().invokeLater(() -> Arrays.stream(ProjectManager.getInstance()
+                    .getOpenProjects()).filter(StsPreloadingActivity::isServerStarted)
+                    .forEach(StsPreloadingActivity::startServer));
+        } else {
+            registerServer();
+        }
+    }
+
+    static boolean isServerStarted(Project project) {
+        return !LAZY_START || Boolean.TRUE.equals(project.getUserData(SERVER_STARTED));
+    }
+
+    /**
+     * Marks the project as started, registers the server definition if needed and connects the open editors of the
+     * project. Must be called on the EDT.
+     */
+    static void startServer(Project project) {
+        project.putUserData(SERVER_STARTED, Boolean.TRUE);
+        registerServer();
+        if (serverRegistered.get()) {
+            for (Editor editor : EditorFactory.getInstance().getAllEditors()) {
+                if (project.equals(editor.getProject())) {
+                    IntellijLanguageClient.editorOpened(editor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the server definition unless it is already registered, returns whether this call registered it.
+     */
+    private static boolean registerServer() {
+        final RawCommandServerDefinition definition = serverDefinition;
+        if (definition == null || !serverRegistered.compareAndSet(false, true)) {
+            return false;
+        }
+        IntellijLanguageClient.addServerDefinition(definition);
+        return true;
     }
 }
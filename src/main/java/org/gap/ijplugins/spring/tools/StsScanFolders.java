@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.messages.MessageBusConnection;
+import org.eclipse.lsp4j.DidChangeConfigurationParams;
+import org.gap.ijplugins.spring.tools.java.CoalescingScheduler;
+import org.gap.ijplugins.spring.tools.lang.SpringXmlFileIndex;
+import org.jetbrains.annotations.NotNull;
+import org.wso2.lsp4intellij.client.languageserver.requestmanager.RequestManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.executeOnIntellijPooledThread;
+
+/**
+ * Keeps the scan folders of the language server in line with the spring xml files of the project index. The list is
+ * sent again, debounced, whenever xml files or directories change or indexing finishes. The default globs are sent
+ * while the index has no spring xml files.
+ */
+public final class StsScanFolders implements Disposable {
+    private static final Logger LOGGER = Logger.getInstance(StsScanFolders.class);
+    private static final long QUIET_PERIOD = Long.getLong("sts4.scan-folders.quiet-period", 2000);
+    private static final long MAX_DELAY = Long.getLong("sts4.scan-folders.max-delay", 20000);
+
+    private final Project project;
+    private final CoalescingScheduler scheduler;
+    private volatile RequestManager requestManager;
+    private String lastScanFolders;
+
+    public StsScanFolders(Project project) {
+        this.project = project;
+        this.scheduler = new CoalescingScheduler(this::send, QUIET_PERIOD, MAX_DELAY);
+
+        final MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                if (requestManager != null && events.stream().anyMatch(StsScanFolders::affectsXmlFiles)) {
+                    scheduler.request();
+                }
+            }
+        });
+        connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+            @Override
+            public void exitDumbMode() {
+                if (requestManager != null) {
+                    scheduler.request();
+                }
+            }
+        });
+    }
+
+    public static StsScanFolders getInstance(Project project) {
+        return project.getService(StsScanFolders.class);
+    }
+
+    /**
+     * Sends the scan folders to the server of the given request manager, and from now on whenever they change.
+     */
+    public void attach(RequestManager requestManager) {
+        synchronized (this) {
+            this.requestManager = requestManager;
+            lastScanFolders = null;
+        }
+        executeOnIntellijPooledThread(() -> {
+            send();
+            return null;
+        });
+    }
+
+    private static boolean affectsXmlFiles(VFileEvent event) {
+        final VirtualFile file = event.getFile();
+        return event.getPath().toLowerCase().endsWith(".xml") || (file != null && file.isDirectory());
+    }
+
+    private synchronized void send() {
+        final RequestManager requestManager = this.requestManager;
+        if (requestManager == null || project.isDisposed() || DumbService.isDumb(project)) {
+            // indexing is followed by another send, until then the server keeps the folders it has.
+            return;
+        }
+
+        final String basePath = Optional.ofNullable(project.getBasePath()).map(p -> p + "/").orElse(null);
+        final List<String> files;
+        try {
+            files = ReadAction.compute(() -> SpringXmlFileIndex.getSpringBeanFiles(project).stream()
+                    .map(VirtualFile::getPath)
+                    .map(p -> basePath != null && p.startsWith(basePath) ? "**/" + p.substring(basePath.length()) : p)
+                    .sorted().collect(Collectors.toList()));
+        } catch (IndexNotReadyException e) {
+            LOGGER.debug("Spring xml file index is not ready, scan folders are sent after indexing");
+            return;
+        }
+
+        final String scanFolders = files.isEmpty() ? StsServerListener.defaultScanFolders()
+                : StsServerListener.scanFolders(files.stream());
+        if (Objects.equals(scanFolders, lastScanFolders)) {
+            return;
+        }
+        requestManager.didChangeConfiguration(
+                new DidChangeConfigurationParams(StsServerListener.configuration(scanFolders)));
+        lastScanFolders = scanFolders;
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.cancel();
+    }
+}
@@ -24,15 +24,44 @@
 
 package org.gap.ijplugins.spring.tools;
 
+import org.wso2.lsp4intellij.client.connection.ProcessStreamConnectionProvider;
+import org.wso2.lsp4intellij.client.connection.StreamConnectionProvider;
 import org.wso2.lsp4intellij.client.languageserver.serverdefinition.RawCommandServerDefinition;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class StsServerDefinition extends RawCommandServerDefinition {
 
+    private final Supplier<String[]> launchCommand;
+
     public StsServerDefinition(String ext, Map<String, String> languageIds, String[] command) {
-        super(ext, languageIds, command);
+        this(ext, languageIds, command, () -> command);
     }
 
+    /**
+     * The launch command is asked for every server process, the command is what identifies the definition.
+     */
+    public StsServerDefinition(String ext, Map<String, String> languageIds, String[] command,
+                               Supplier<String[]> launchCommand) {
+        super(ext, languageIds, command);
+        this.launchCommand = launchCommand;
+    }
 
+    @Override
+    public StreamConnectionProvider createConnectionProvider(String workingDir) {
+        final List<String> command = Arrays.asList(launchCommand.get());
+        return new ProcessStreamConnectionProvider(command, workingDir) {
+            @Override
+            public void stop() {
+                try {
+                    super.stop();
+                } finally {
+                    ServerCds.serverStopped(command);
+                }
+            }
+        };
+    }
 }
@@ -33,6 +33,7 @@ import org.jetbrains.annotations.NotNull;
 import org.wso2.lsp4intellij.client.languageserver.serverdefinition.ServerListener;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -42,18 +43,28 @@ class StsServerListener implements ServerListener {
 
     @Override
     public void initialize(@NotNull LanguageServer server, @NotNull InitializeResult result) {
-        final String globs = Stream.concat(
-                Arrays.stream(System.getProperty("sts4.boot.scan-folders-globs", "").split(",")),
-                Arrays.stream(new String[]{"**/src/main/**", "**/src/test/**"}))
-                .filter(i -> !i.isEmpty()).collect(Collectors.joining(","));
+        // the client narrows the globs down to the indexed spring xml files once the project is smart.
+        server.getWorkspaceService().didChangeConfiguration(new DidChangeConfigurationParams(
+                configuration(defaultScanFolders())));
+    }
+
+    static String defaultScanFolders() {
+        return scanFolders(Stream.of("**/src/main/**", "**/src/test/**"));
+    }
+
+    static String scanFolders(Stream<String> patterns) {
+        return Stream.concat(Arrays.stream(System.getProperty("sts4.boot.scan-folders-globs", "").split(",")),
+                patterns).filter(i -> !i.isEmpty()).collect(Collectors.joining(","));
+    }
 
-        ImmutableMap<String, Object> configJsonObject = ImmutableMap
+    static Map<String, Object> configuration(String scanFolders) {
+        return ImmutableMap
                 .of("boot-java",
                         ImmutableMap.of("support-spring-xml-config", ImmutableMap.of("on", "true",
-                            "hyperlinks", "true", "scan-folders", globs,
-                            "content-assist", "true")),
+                            "hyperlinks", "true", "scan-folders", scanFolders,
+                            "content-assist", "true"),
+                            // the client answers sts/javaBatchResolve for lists of binding keys.
+                            "java-bridge", ImmutableMap.of("batch-resolve", "true")),
                         "scan-java-test-sources", ImmutableMap.of("on", " true"));
-        server.getWorkspaceService()
-                .didChangeConfiguration(new DidChangeConfigurationParams(configJsonObject));
     }
 }
@@ -37,7 +37,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 public final class StsServiceDefinitionBuilder {
 
@@ -98,26 +101,42 @@ public final class StsServiceDefinitionBuilder {
             final String javaExePath = javaHomePath.resolve(Paths.get("bin", javaExecutable))
                     .toString();
 
-            final ImmutableList.Builder<String> commandBuilder = ImmutableList.builder();
+            ImmutableList.Builder<String> commandBuilder = ImmutableList.builder();
             commandBuilder.add(javaExePath);
             commandBuilder.addAll(Arrays.asList(StsSettingsProvider.INSTANCE.getSettings().getJvmArgs().split(" ")));
+            final Path serverJar = new File(root, "lib/server/language-server.jar").toPath();
+            final Optional<ExplodedServer> exploded = ExplodedServer.ENABLED
+                    ? ExplodedServer.extract(serverJar) : Optional.empty();
+            exploded.ifPresent(e -> classPathBuilder.insert(0, e.getClasspath()));
             if(classPathBuilder.length() > 0) {
                 commandBuilder.add("-classpath").add(classPathBuilder.toString());
             }
+            final List<String> launcherArgs = commandBuilder.build();
+            commandBuilder = ImmutableList.builder();
 
             if (debug) {
                 commandBuilder.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=1044");
             }
             //commandBuilder.add("-Dlanguageserver.boot.enable-jandex-index=true");
             //commandBuilder.add("-Dsts.lsp.client=vscode");
-            commandBuilder.add("-jar").add(new File(root, "lib/server/language-server.jar").getPath());
+            if (exploded.isPresent()) {
+                commandBuilder.add(exploded.get().getMainClass());
+            } else {
+                commandBuilder.add("-jar").add(serverJar.toString());
+            }
+
+            final List<String> serverArgs = commandBuilder.build();
+            final String classpath = classPathBuilder.toString();
+            final String[] command = ImmutableList.<String>builder().addAll(launcherArgs).addAll(serverArgs).build()
+                    .toArray(new String[0]);
+            // class data sharing arguments depend on the archive state at the time the server is started.
+            final Supplier<String[]> launchCommand = () -> ImmutableList.<String>builder().addAll(launcherArgs)
+                    .addAll(ServerCds.jvmArgs(serverJar, classpath)).addAll(serverArgs).build().toArray(new String[0]);
 
             if (serverListenerEnabled) {
-                return new StsListenableServerDefinition(extensions,
-                        langIds, commandBuilder.build().toArray(new String[0]));
+                return new StsListenableServerDefinition(extensions, langIds, command, launchCommand);
             } else {
-                return new StsServerDefinition(extensions,
-                        langIds, commandBuilder.build().toArray(new String[0]));
+                return new StsServerDefinition(extensions, langIds, command, launchCommand);
             }
 
         } catch (Exception e) {
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.highlight;
+
+import java.util.Objects;
+
+/**
+ * Identifies a highlight by its document offsets and payload, so that unchanged highlights survive an update.
+ */
+final class HighlightKey {
+    private final int startOffset;
+    private final int endOffset;
+    private final String payload;
+
+    HighlightKey(int startOffset, int endOffset, String payload) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.payload = payload;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HighlightKey)) {
+            return false;
+        }
+        HighlightKey that = (HighlightKey) o;
+        return startOffset == that.startOffset && endOffset == that.endOffset && Objects.equals(payload, that.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startOffset, endOffset, payload);
+    }
+}
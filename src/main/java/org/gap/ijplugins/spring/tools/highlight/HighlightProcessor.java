@@ -25,11 +25,22 @@
 package org.gap.ijplugins.spring.tools.highlight;
 
 import com.intellij.openapi.editor.Editor;
-import org.eclipse.lsp4j.CodeLens;
 
 public interface HighlightProcessor {
 
     void preProcess(String documentUri, Editor editor);
 
-    void process(String documentUri, CodeLens codeLens, Editor editor);
+    void process(String documentUri, PreparedHighlight highlight, Editor editor);
+
+    /**
+     * Called after all code lenses of an update are processed, to drop what the update no longer contains.
+     */
+    default void postProcess(String documentUri, Editor editor) {
+    }
+
+    /**
+     * Called when the editor is released, to forget everything that was tracked for it.
+     */
+    default void release(Editor editor) {
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.highlight;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.eclipse.lsp4j.CodeLens;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Applies highlight updates to an editor through the highlight processors. Code lenses are resolved against the
+ * document in {@link #prepare(Document, List)} off the EDT, so that the EDT only adds and removes markup. In viewport
+ * mode only the highlights around the visible area are materialized, the rest is filled in as the editor scrolls.
+ * Except for {@code prepare}, all methods must be called on the EDT.
+ * <p>
+ * One updater is shared by the language clients of a project, so that the markup of a document outlives server
+ * restarts and editors are released through a single listener bound to the project.
+ */
+public final class HighlightUpdater implements Disposable {
+    private static final Logger LOGGER = Logger.getInstance(HighlightUpdater.class);
+    private static final boolean VIEWPORT_MODE = Boolean.getBoolean("sts4.highlights.viewport");
+    private static final int VIEWPORT_MARGIN = Integer.getInteger("sts4.highlights.viewport-margin", 100);
+
+    private final List<HighlightProcessor> processors;
+    private final Map<Editor, Deferred> deferred = new HashMap<>();
+
+    public HighlightUpdater(Project project) {
+        this.processors = ImmutableList.of(new RangeHighlightProcessor(), new InlayHighlightProcessor());
+        EditorFactory.getInstance().addEditorFactoryListener(new EditorFactoryListener() {
+            @Override
+            public void editorReleased(@NotNull EditorFactoryEvent event) {
+                // every project has its own updater, so only the editors of this project are released here.
+                if (project.equals(event.getEditor().getProject())) {
+                    release(event.getEditor());
+                }
+            }
+        }, this);
+    }
+
+    public static HighlightUpdater getInstance(Project project) {
+        return project.getService(HighlightUpdater.class);
+    }
+
+    /**
+     * Resolves the code lenses to offsets of the document, dropping those which are out of its bounds. Must be called
+     * within a read action.
+     */
+    public static List<PreparedHighlight> prepare(Document document, List<CodeLens> codeLenses) {
+        final List<PreparedHighlight> highlights = new ArrayList<>(codeLenses.size());
+        for (CodeLens codeLens : codeLenses) {
+            final Range range = codeLens.getRange();
+            final int startOffset = offsetOf(document, range.getStart());
+            final int endOffset = offsetOf(document, range.getEnd());
+            if (startOffset < 0 || endOffset < startOffset) {
+                LOGGER.debug("Skipping code lens out of document bounds " + range);
+                continue;
+            }
+            highlights.add(new PreparedHighlight(codeLens, range.getStart().getLine(), startOffset, endOffset));
+        }
+        return highlights;
+    }
+
+    private static int offsetOf(Document document, Position position) {
+        if (position.getLine() < 0 || position.getLine() >= document.getLineCount()) {
+            return -1;
+        }
+        final int offset = document.getLineStartOffset(position.getLine()) + position.getCharacter();
+        return position.getCharacter() >= 0 && offset <= document.getLineEndOffset(position.getLine()) ? offset : -1;
+    }
+
+    public void update(String documentUri, Editor editor, List<PreparedHighlight> highlights) {
+        discard(editor);
+        if (!VIEWPORT_MODE || editor.isDisposed()) {
+            processors.forEach(p -> p.preProcess(documentUri, editor));
+            highlights.forEach(h -> processors.forEach(p -> p.process(documentUri, h, editor)));
+            processors.forEach(p -> p.postProcess(documentUri, editor));
+            return;
+        }
+
+        final Deferred pending = new Deferred(documentUri, editor.getDocument().getModificationStamp());
+        highlights.forEach(h -> pending.highlights.computeIfAbsent(h.getStartLine(), k -> new ArrayList<>()).add(h));
+        processors.forEach(p -> p.preProcess(documentUri, editor));
+        materializeVisible(editor, pending);
+        processors.forEach(p -> p.postProcess(documentUri, editor));
+
+        if (!pending.highlights.isEmpty()) {
+            deferred.put(editor, pending);
+            editor.getScrollingModel().addVisibleAreaListener(e -> {
+                materializeVisible(editor, pending);
+                if (pending.highlights.isEmpty()) {
+                    discard(editor);
+                }
+            }, pending);
+            // deferred offsets belong to the prepared document, after an edit they are dropped and the server's
+            // next highlight notification for the changed document brings them back.
+            editor.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void documentChanged(@NotNull DocumentEvent event) {
+                    discard(editor);
+                }
+            }, pending);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        deferred.values().forEach(Disposer::dispose);
+        deferred.clear();
+    }
+
+    public void release(Editor editor) {
+        discard(editor);
+        processors.forEach(p -> p.release(editor));
+    }
+
+    private void materializeVisible(Editor editor, Deferred pending) {
+        if (editor.getDocument().getModificationStamp() != pending.modificationStamp) {
+            pending.highlights.clear();
+            return;
+        }
+
+        final Rectangle area = editor.getScrollingModel().getVisibleArea();
+        final int firstLine = Math.max(0, editor.xyToLogicalPosition(new Point(0, area.y)).line - VIEWPORT_MARGIN);
+        final int lastLine = editor.xyToLogicalPosition(new Point(0, area.y + area.height)).line + VIEWPORT_MARGIN;
+
+        final NavigableMap<Integer, List<PreparedHighlight>> visible =
+                pending.highlights.subMap(firstLine, true, lastLine, true);
+        visible.values().forEach(highlights -> highlights.forEach(
+                h -> processors.forEach(p -> p.process(pending.documentUri, h, editor))));
+        visible.clear();
+    }
+
+    private void discard(Editor editor) {
+        final Deferred pending = deferred.remove(editor);
+        if (pending != null) {
+            Disposer.dispose(pending);
+        }
+    }
+
+    private static final class Deferred implements Disposable {
+        private final String documentUri;
+        private final long modificationStamp;
+        // the highlights which are not materialized yet by their start line.
+        private final NavigableMap<Integer, List<PreparedHighlight>> highlights = new TreeMap<>();
+
+        private Deferred(String documentUri, long modificationStamp) {
+            this.documentUri = documentUri;
+            this.modificationStamp = modificationStamp;
+        }
+
+        @Override
+        public void dispose() {
+            highlights.clear();
+        }
+    }
+}
@@ -24,42 +24,39 @@
 
 package org.gap.ijplugins.spring.tools.highlight;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
 import com.intellij.codeInsight.daemon.impl.HintRenderer;
-import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.Inlay;
-import org.eclipse.lsp4j.CodeLens;
-import org.eclipse.lsp4j.Range;
 
-import java.util.Collection;
+public class InlayHighlightProcessor extends MarkupDiffProcessor<Inlay<HintRenderer>> {
 
-public class InlayHighlightProcessor implements HighlightProcessor {
+    @Override
+    protected boolean accepts(PreparedHighlight highlight) {
+        return highlight.getHint() != null;
+    }
 
-    private final Multimap<String, Inlay<HintRenderer>> inlays = ArrayListMultimap.create();
+    @Override
+    protected HighlightKey keyOf(PreparedHighlight highlight) {
+        return new HighlightKey(highlight.getEndOffset(), highlight.getEndOffset(), highlight.getPayload());
+    }
 
     @Override
-    public void preProcess(String documentUri, Editor editor) {
-        final Collection<Inlay<HintRenderer>> rangeHighlighters = inlays.get(documentUri);
-        if (rangeHighlighters != null) {
-            rangeHighlighters.forEach(Inlay::dispose);
-        }
+    protected HighlightKey keyOf(Inlay<HintRenderer> inlay, String payload) {
+        return new HighlightKey(inlay.getOffset(), inlay.getOffset(), payload);
     }
 
     @Override
-    public void process(String documentUri, CodeLens codeLens, Editor editor) {
-        if (codeLens.getData() == null) {
-            return;
-        }
+    protected Inlay<HintRenderer> create(Editor editor, PreparedHighlight highlight) {
+        return editor.getInlayModel().addInlineElement(highlight.getEndOffset(), highlight.getHint());
+    }
 
-        final Document document = editor.getDocument();
-        Range range = codeLens.getRange();
-        int endOffset =
-            document.getLineStartOffset(range.getEnd().getLine()) + range.getEnd().getCharacter();
+    @Override
+    protected boolean isValid(Inlay<HintRenderer> inlay) {
+        return inlay.isValid();
+    }
 
-        HintRenderer renderer = new HintRenderer(codeLens.getData().toString());
-        Inlay<HintRenderer> inlay = editor.getInlayModel().addInlineElement(endOffset, renderer);
-        inlays.put(documentUri, inlay);
+    @Override
+    protected void remove(Editor editor, Inlay<HintRenderer> inlay) {
+        inlay.dispose();
     }
 }
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.highlight;
+
+import com.intellij.openapi.editor.Editor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the code lenses of an update as a diff against the markup of the previous update. Markup whose offsets and
+ * payload are unchanged is kept, the rest is removed or created. Only the documents of open editors are tracked. All
+ * methods must be called on the EDT.
+ */
+abstract class MarkupDiffProcessor<T> implements HighlightProcessor {
+
+    private final Map<String, DocumentMarkup<T>> documents = new HashMap<>();
+
+    @Override
+    public void preProcess(String documentUri, Editor editor) {
+        final DocumentMarkup<T> previous = documents.remove(documentUri);
+        final DocumentMarkup<T> next = new DocumentMarkup<>(editor);
+        if (previous != null) {
+            previous.current.forEach((m, payload) -> {
+                // markup follows document edits, so it is matched by where it is now.
+                if (isValid(m) && (previous.editor != editor
+                        || next.stale.putIfAbsent(keyOf(m, payload), m) != null)) {
+                    remove(previous.editor, m);
+                }
+            });
+        }
+        documents.put(documentUri, next);
+    }
+
+    @Override
+    public void process(String documentUri, PreparedHighlight highlight, Editor editor) {
+        if (!accepts(highlight)) {
+            return;
+        }
+
+        final DocumentMarkup<T> markup = documents.computeIfAbsent(documentUri, k -> new DocumentMarkup<>(editor));
+        T existing = markup.stale.remove(keyOf(highlight));
+        if (existing == null) {
+            existing = create(editor, highlight);
+        }
+        if (existing != null) {
+            markup.current.put(existing, highlight.getPayload());
+        }
+    }
+
+    @Override
+    public void postProcess(String documentUri, Editor editor) {
+        final DocumentMarkup<T> markup = documents.get(documentUri);
+        if (markup != null) {
+            markup.stale.values().forEach(m -> remove(markup.editor, m));
+            markup.stale.clear();
+            if (markup.current.isEmpty()) {
+                documents.remove(documentUri);
+            }
+        }
+    }
+
+    @Override
+    public void release(Editor editor) {
+        // the markup of a released editor is disposed together with it.
+        documents.values().removeIf(m -> m.editor == editor);
+    }
+
+    protected boolean accepts(PreparedHighlight highlight) {
+        return true;
+    }
+
+    protected abstract HighlightKey keyOf(PreparedHighlight highlight);
+
+    protected abstract HighlightKey keyOf(T markup, String payload);
+
+    protected abstract T create(Editor editor, PreparedHighlight highlight);
+
+    protected abstract boolean isValid(T markup);
+
+    protected abstract void remove(Editor editor, T markup);
+
+    private static final class DocumentMarkup<T> {
+        private final Editor editor;
+        // the markup of the document with the payload it was created for.
+        private final Map<T, String> current = new HashMap<>();
+        // the markup of an update in progress which is not yet confirmed by a code lens.
+        private final Map<HighlightKey, T> stale = new HashMap<>();
+
+        private DocumentMarkup(Editor editor) {
+            this.editor = editor;
+        }
+    }
+}
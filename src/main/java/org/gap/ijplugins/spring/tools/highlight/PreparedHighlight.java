@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.highlight;
+
+import com.intellij.codeInsight.daemon.impl.HintRenderer;
+import org.eclipse.lsp4j.CodeLens;
+
+/**
+ * A code lens resolved against a document snapshot, ready to be added as markup on the EDT.
+ */
+public final class PreparedHighlight {
+    private final CodeLens codeLens;
+    private final int startLine;
+    private final int startOffset;
+    private final int endOffset;
+    private final String payload;
+    private final HintRenderer hint;
+
+    PreparedHighlight(CodeLens codeLens, int startLine, int startOffset, int endOffset) {
+        this.codeLens = codeLens;
+        this.startLine = startLine;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.payload = String.valueOf(codeLens.getData());
+        this.hint = codeLens.getData() != null ? new HintRenderer(payload) : null;
+    }
+
+    public CodeLens getCodeLens() {
+        return codeLens;
+    }
+
+    public int getStartLine() {
+        return startLine;
+    }
+
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the renderer of the inline hint, or null when the code lens carries no hint text.
+     */
+    public HintRenderer getHint() {
+        return hint;
+    }
+}
@@ -24,9 +24,6 @@
 
 package org.gap.ijplugins.spring.tools.highlight;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
-import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.markup.EffectType;
 import com.intellij.openapi.editor.markup.HighlighterLayer;
@@ -34,46 +31,50 @@ import com.intellij.openapi.editor.markup.HighlighterTargetArea;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
 import com.intellij.openapi.editor.markup.TextAttributes;
 import com.intellij.ui.JBColor;
-import org.eclipse.lsp4j.CodeLens;
-import org.eclipse.lsp4j.Range;
 import org.gap.ijplugins.spring.tools.SpringBootGutterIconRenderer;
 
 import java.awt.*;
-import java.util.Collection;
 
-public class RangeHighlightProcessor implements HighlightProcessor {
+public class RangeHighlightProcessor extends MarkupDiffProcessor<RangeHighlighter> {
 
-    private final Multimap<String, RangeHighlighter> ranges = ArrayListMultimap.create();
     private final static Color SPRING_BOOT_HINT_COLOR = new JBColor(new Color(0x32, 0xBA, 0x56), new Color(0x32, 0xBA, 0x56));
+    // shared by all highlighters, must never be modified after creation.
+    private final static TextAttributes SPRING_BOOT_HINT_ATTRIBUTES = createHintAttributes();
 
     @Override
-    public void preProcess(String documentUri, Editor editor) {
-        final Collection<RangeHighlighter> rangeHighlighters = ranges.get(documentUri);
-        if (rangeHighlighters != null) {
-            rangeHighlighters.forEach(r -> {
-                editor.getMarkupModel().removeHighlighter(r);
-            });
-        }
+    protected HighlightKey keyOf(PreparedHighlight highlight) {
+        return new HighlightKey(highlight.getStartOffset(), highlight.getEndOffset(), highlight.getPayload());
     }
 
     @Override
-    public void process(String documentUri, CodeLens codeLens, Editor editor) {
-        final Document document = editor.getDocument();
-        Range range = codeLens.getRange();
+    protected HighlightKey keyOf(RangeHighlighter highlighter, String payload) {
+        return new HighlightKey(highlighter.getStartOffset(), highlighter.getEndOffset(), payload);
+    }
 
-        int startOffset = document.getLineStartOffset(range.getStart().getLine()) + range.getStart()
-            .getCharacter();
-        int endOffset =
-            document.getLineStartOffset(range.getEnd().getLine()) + range.getEnd().getCharacter();
+    @Override
+    protected RangeHighlighter create(Editor editor, PreparedHighlight highlight) {
+        RangeHighlighter highlighter = editor.getMarkupModel()
+            .addRangeHighlighter(highlight.getStartOffset(), highlight.getEndOffset(), HighlighterLayer.ERROR,
+                SPRING_BOOT_HINT_ATTRIBUTES, HighlighterTargetArea.EXACT_RANGE);
+        highlighter.setGutterIconRenderer(SpringBootGutterIconRenderer.INSTANCE);
+        return highlighter;
+    }
 
+    @Override
+    protected boolean isValid(RangeHighlighter highlighter) {
+        return highlighter.isValid();
+    }
+
+    @Override
+    protected void remove(Editor editor, RangeHighlighter highlighter) {
+        editor.getMarkupModel().removeHighlighter(highlighter);
+    }
+
+    private static TextAttributes createHintAttributes() {
         TextAttributes attrs = new TextAttributes();
         attrs.setEffectType(EffectType.BOXED);
         attrs.setEffectColor(SPRING_BOOT_HINT_COLOR);
         attrs.setErrorStripeColor(SPRING_BOOT_HINT_COLOR);
-        RangeHighlighter highlighter = editor.getMarkupModel()
-            .addRangeHighlighter(startOffset, endOffset, HighlighterLayer.ERROR, attrs,
-                HighlighterTargetArea.EXACT_RANGE);
-        highlighter.setGutterIconRenderer(SpringBootGutterIconRenderer.INSTANCE);
-        ranges.put(documentUri, highlighter);
+        return attrs;
     }
 }
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.intellij.lang.jvm.types.JvmType;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiWildcardType;
+
+/**
+ * Builds binding keys into a single reusable buffer. The resulting keys are interned since the same type keys show up
+ * in almost every method and field of a type.
+ * <p>
+ * An encoder is not thread safe. Instances created with {@link #BindingKeyEncoder()} remember the key of the last
+ * class they encoded, so they must only be used for a single computation and then dropped, since the class name
+ * could change later on.
+ */
+public final class BindingKeyEncoder {
+    private static final Interner<String> KEYS = Interners.newWeakInterner();
+
+    private final StringBuilder sb = new StringBuilder(256);
+    private final boolean cacheClassKey;
+    private PsiClass lastClass;
+    private String lastClassKey;
+
+    public BindingKeyEncoder() {
+        this(true);
+    }
+
+    BindingKeyEncoder(boolean cacheClassKey) {
+        this.cacheClassKey = cacheClassKey;
+    }
+
+    public String classKey(PsiClass clazz) {
+        if (cacheClassKey && clazz == lastClass && lastClassKey != null) {
+            return lastClassKey;
+        }
+
+        sb.setLength(0);
+        appendClass(clazz);
+        final String key = intern();
+        if (cacheClassKey) {
+            lastClass = clazz;
+            lastClassKey = key;
+        }
+        return key;
+    }
+
+    public String fieldKey(PsiField field) {
+        final String classKey = classKey(field.getContainingClass());
+        sb.setLength(0);
+        sb.append(classKey).append('.').append(field.getName()).append(')');
+        appendType(field.getType());
+        return intern();
+    }
+
+    public String methodKey(PsiMethod method) {
+        final String classKey = classKey(method.getContainingClass());
+        sb.setLength(0);
+        sb.append(classKey).append('.').append(method.getName()).append('(');
+        for (PsiParameter parameter : method.getParameterList().getParameters()) {
+            appendType(parameter.getType());
+        }
+        sb.append(')');
+        appendType(method.getReturnType());
+        return intern();
+    }
+
+    public String typeKey(JvmType type) {
+        sb.setLength(0);
+        appendType(type);
+        return intern();
+    }
+
+    private String intern() {
+        return KEYS.intern(sb.toString());
+    }
+
+    private void appendClass(PsiClass clazz) {
+        sb.append('L');
+        appendSlashed(clazz.getQualifiedName());
+        sb.append(';');
+    }
+
+    private void appendType(JvmType type) {
+        if (type instanceof PsiArrayType) {
+            final PsiArrayType arrayType = (PsiArrayType) type;
+            for (int i = 0; i < arrayType.getArrayDimensions(); ++i) {
+                sb.append('[');
+            }
+            appendType(arrayType.getComponentType());
+        } else if (type instanceof PsiPrimitiveType) {
+            sb.append(primitiveKey((PsiPrimitiveType) type));
+        } else if (type instanceof PsiClassType) {
+            sb.append('L');
+            appendSlashed(((PsiClassType) type).getClassName());
+            sb.append(';');
+        } else if (type instanceof PsiWildcardType) {
+            final PsiWildcardType wildcardType = (PsiWildcardType) type;
+            if (wildcardType.getExtendsBound() != null) {
+                sb.append('+');
+                appendType(wildcardType.getExtendsBound());
+            } else if (wildcardType.getSuperBound() != null) {
+                sb.append('-');
+                appendType(wildcardType.getSuperBound());
+            } else {
+                sb.append('*');
+            }
+        }
+    }
+
+    private void appendSlashed(String name) {
+        for (int i = 0, length = name.length(); i < length; i++) {
+            final char c = name.charAt(i);
+            sb.append(c == '.' ? '/' : c);
+        }
+    }
+
+    private static char primitiveKey(PsiPrimitiveType primitive) {
+        if (primitive == PsiPrimitiveType.BYTE) {
+            return 'B';
+        } else if (primitive == PsiPrimitiveType.CHAR) {
+            return 'C';
+        } else if (primitive == PsiPrimitiveType.DOUBLE) {
+            return 'D';
+        } else if (primitive == PsiPrimitiveType.FLOAT) {
+            return 'F';
+        } else if (primitive == PsiPrimitiveType.INT) {
+            return 'I';
+        } else if (primitive == PsiPrimitiveType.LONG) {
+            return 'J';
+        } else if (primitive == PsiPrimitiveType.VOID) {
+            return 'V';
+        } else {
+            return primitive == PsiPrimitiveType.SHORT ? 'S' : 'Z';
+        }
+    }
+}
@@ -35,6 +35,8 @@ public class ClasspathArgument {
     private final String projectName;
     private boolean deleted = false;
     private Classpath classpath;
+    private int sequence = -1;
+    private boolean complete = true;
 
     public ClasspathArgument(String projectName) {
         this.projectName = projectName;
@@ -59,12 +61,26 @@ public class ClasspathArgument {
         return this;
     }
 
+    /**
+     * Marks the classpath as one chunk of a larger update, with its zero based sequence number and whether it is the
+     * last chunk of the update.
+     */
+    public ClasspathArgument chunk(int sequence, boolean complete) {
+        this.sequence = sequence;
+        this.complete = complete;
+        return this;
+    }
+
     public List<Object> arguments() {
         List<Object> arguments = new ArrayList<>();
         arguments.add(projectURI);
         arguments.add(projectName);
         arguments.add(deleted);
         arguments.add(classpath);
+        if (sequence >= 0) {
+            arguments.add(sequence);
+            arguments.add(complete);
+        }
         return Collections.unmodifiableList(arguments);
     }
 }
@@ -24,59 +24,46 @@
 
 package org.gap.ijplugins.spring.tools.java;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.intellij.ProjectTopics;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.projectRoots.JavaSdk;
-import com.intellij.openapi.projectRoots.JavaSdkVersion;
-import com.intellij.openapi.roots.ModuleRootEvent;
-import com.intellij.openapi.roots.ModuleRootListener;
-import com.intellij.openapi.roots.ModuleRootManager;
-import com.intellij.openapi.roots.OrderRootType;
-import com.intellij.openapi.roots.ProjectRootManager;
-import com.intellij.openapi.vfs.LocalFileSystem;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.messages.MessageBusConnection;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.eclipse.lsp4j.ExecuteCommandParams;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.jps.model.java.JavaResourceRootType;
-import org.jetbrains.jps.model.java.JavaSourceRootType;
 import org.springframework.ide.vscode.commons.protocol.java.Classpath;
 import org.springframework.ide.vscode.commons.protocol.java.Classpath.CPE;
 import org.springframework.ide.vscode.commons.protocol.java.ClasspathListenerParams;
 import org.wso2.lsp4intellij.client.languageserver.requestmanager.RequestManager;
 import org.wso2.lsp4intellij.utils.FileUtils;
 
-import java.io.File;
-import java.net.MalformedURLException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
-import static org.gap.ijplugins.spring.tools.ApplicationUtils.executeOnIntellijPooledThread;
-import static org.gap.ijplugins.spring.tools.ApplicationUtils.runReadAction;
-import static org.gap.ijplugins.spring.tools.java.CommonUtils.fromFirst;
-import static org.gap.ijplugins.spring.tools.java.CommonUtils.toBinaryCPE;
-
-public class ClasspathListener {
+/**
+ * Delivers the classpath of the shared {@link ClasspathModel} to one language server callback.
+ */
+public class ClasspathListener implements ClasspathModel.Subscriber {
     private static final Logger LOGGER = Logger.getInstance(ClasspathListener.class);
-    private static final VirtualFile[] EMPTY_VIRTUAL_FILES = new VirtualFile[0];
+    private static final long DELIVERY_TIMEOUT = Long.getLong("sts4.classpath.timeout", 60000);
+    // chunking is opt-in since the sequence and complete arguments are only understood by servers which support them,
+    // others take every non deleted command as the whole classpath. A chunk is closed at whichever limit is hit first,
+    // a chunk size of 0 sends every update as one command.
+    private static final int CHUNK_SIZE = Integer.getInteger("sts4.classpath.chunk-size", 0);
+    private static final int CHUNK_CHARS = Integer.getInteger("sts4.classpath.chunk-chars", 256 * 1024);
 
     private final String callbackCommandId;
     private final Project project;
-    private RequestManager requestManager;
-    private MessageBusConnection messageBusConnection;
+    private volatile RequestManager requestManager;
 
-    private final Object requestManagerSync = new Object();
+    // classpath commands are chained so that the server receives them in the order they were computed.
+    private CompletableFuture<Void> lastDelivery = CompletableFuture.completedFuture(null);
+    private final Object deliverySync = new Object();
 
     private ClasspathListener(String callbackCommandId, Project project) {
         this.callbackCommandId = callbackCommandId;
@@ -89,155 +76,96 @@ public class ClasspathListener {
 
     public void register(RequestManager requestManager) {
         this.requestManager = requestManager;
-        messageBusConnection = project.getMessageBus().connect(project);
-        LSModuleRootListener moduleRootListener = new LSModuleRootListener();
-        messageBusConnection.subscribe(ProjectTopics.PROJECT_ROOTS, moduleRootListener);
-        Set<CPE> list = runReadAction(this::collectCPEs);
-        sendClasspathCommand(list, false);
-        moduleRootListener.updateBefore(list);
+        ClasspathModel.getInstance(project).subscribe(this);
     }
 
     public void unregister() {
-        messageBusConnection.disconnect();
-        messageBusConnection = null;
-        synchronized (requestManagerSync) {
-            requestManager = null;
-        }
+        ClasspathModel.getInstance(project).unsubscribe(this);
+        requestManager = null;
     }
 
-    private Set<CPE> collectCPEs() {
-        final ProjectRootManager projectRootManager = ProjectRootManager.getInstance(project);
-        final Set<CPE> cpes = new HashSet<>();
-
-        Arrays.asList(ModuleManager.getInstance(project).getModules()).forEach(m -> {
-            final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(m);
-            final String outputUrl = CommonUtils.outputDir(m);
-            final String testOutputUrl = CommonUtils.testOutputDir(m);
-
-            if (outputUrl != null) {
-                moduleRootManager.getSourceRoots(JavaSourceRootType.SOURCE).stream()
-                        .map(f -> mapSourceRoot(f, outputUrl, true, false)).forEach(cpes::add);
-                moduleRootManager.getSourceRoots(JavaResourceRootType.RESOURCE).stream()
-                        .map(f -> mapSourceRoot(f, outputUrl, false, false)).forEach(cpes::add);
-            } else {
-                LOGGER.debug("outputUrl is null for module " + m.getName());
-            }
-
-            if (testOutputUrl != null) {
-                moduleRootManager.getSourceRoots(JavaSourceRootType.TEST_SOURCE).stream()
-                        .map(f -> mapSourceRoot(f, testOutputUrl, true, true)).forEach(cpes::add);
-                moduleRootManager.getSourceRoots(JavaResourceRootType.TEST_RESOURCE).stream()
-                        .map(f -> mapSourceRoot(f, testOutputUrl, false, true)).forEach(cpes::add);
-            } else {
-                LOGGER.debug("testOutputUrl is null for module " + m.getName());
-            }
-        });
-
-        projectRootManager.orderEntries().withoutSdk().forEachLibrary(l -> {
-            processLibrary(cpes, false, l::getFiles);
-            return true;
-        });
-        processLibrary(cpes, true, getSDKClasspathFiles(projectRootManager));
-        return cpes;
+    @Override
+    public void classpathChanged(Set<CPE> classpath) {
+        sendClasspathCommand(classpath, false);
     }
 
-    @NotNull
-    private Function<OrderRootType, VirtualFile[]> getSDKClasspathFiles(ProjectRootManager projectRootManager) {
-        return Optional.ofNullable(projectRootManager.getProjectSdk()).map(sdk -> {
-            if (JavaSdk.getInstance().isOfVersionOrHigher(sdk, JavaSdkVersion.JDK_1_9)) {
-                return (Function<OrderRootType, VirtualFile[]>) orderRootType -> {
-                    if (orderRootType == OrderRootType.CLASSES) {
-                        final File file = new File(sdk.getHomePath(), "lib/jrt-fs.jar");
-                        final VirtualFile fsFile = LocalFileSystem.getInstance().findFileByIoFile(file);
-                        return new VirtualFile[]{fsFile};
-                    } else {
-                        return sdk.getRootProvider().getFiles(orderRootType);
-                    }
-                };
-            }
-            return (Function<OrderRootType, VirtualFile[]>) sdk.getRootProvider()::getFiles;
-        }).orElse(ort -> EMPTY_VIRTUAL_FILES);
-    }
+    private void sendClasspathCommand(Collection<CPE> entries, boolean deleted) {
 
-    private void processLibrary(Set<CPE> cpes, boolean sdk, Function<OrderRootType, VirtualFile[]> files) {
-        String sourcePath = fromFirst(files.apply(OrderRootType.SOURCES), VirtualFile::getUrl).orElse("");
-        String javadocPath = fromFirst(files.apply(OrderRootType.DOCUMENTATION), VirtualFile::getUrl).orElse("");
-
-        Arrays.stream(files.apply(OrderRootType.CLASSES)).map(f -> {
-            CPE cpe = toBinaryCPE(f);
-            try {
-                cpe.setJavadocContainerUrl(new File(javadocPath).toURI().toURL());
-                cpe.setSourceContainerUrl(new File(sourcePath).toURI().toURL());
-            } catch (MalformedURLException e) {
-                LOGGER.error(e.getMessage(), e);
+        final List<List<CPE>> chunks = chunks(entries);
+        synchronized (deliverySync) {
+            for (int i = 0; i < chunks.size(); i++) {
+                final List<CPE> chunk = chunks.get(i);
+                final int sequence = chunks.size() > 1 ? i : -1;
+                final boolean complete = i == chunks.size() - 1;
+                // commands are built off the thread which completed the previous delivery, which is the lsp reader, and
+                // a failed delivery must not stop the ones that follow.
+                lastDelivery = lastDelivery
+                        .thenComposeAsync(v -> deliverClasspathCommand(chunk, deleted, sequence, complete),
+                                AppExecutorUtil.getAppExecutorService())
+                        .exceptionally(e -> {
+                            LOGGER.error("Failed to deliver classpath for callback " + callbackCommandId, e);
+                            return null;
+                        });
             }
-            cpe.setOwn(false);
-            cpe.setSystem(sdk);
-            cpe.setJavaContent(true);
-            return cpe;
-        }).forEach(cpes::add);
+        }
     }
 
-    private CPE mapSourceRoot(VirtualFile file, String outputUrl, boolean isJava, boolean isTest) {
-        CPE cpe = CPE.source(new File(file.getPath()), new File(outputUrl));
-        cpe.setOwn(true);
-        cpe.setTest(isTest);
-        cpe.setSystem(false);
-        cpe.setJavaContent(isJava);
-        return cpe;
+    private static List<List<CPE>> chunks(Collection<CPE> entries) {
+        if (CHUNK_SIZE <= 0 || entries.size() <= 1) {
+            return Collections.singletonList(new ArrayList<>(entries));
+        }
+
+        final List<List<CPE>> chunks = new ArrayList<>();
+        List<CPE> chunk = new ArrayList<>(Math.min(CHUNK_SIZE, entries.size()));
+        int chars = 0;
+        for (CPE cpe : entries) {
+            // the paths and urls of an entry make up most of its serialized size.
+            final int size = cpe.getPath().length() + String.valueOf(cpe.getSourceContainerUrl()).length()
+                    + String.valueOf(cpe.getJavadocContainerUrl()).length();
+            if (!chunk.isEmpty() && (chunk.size() >= CHUNK_SIZE || chars + size > CHUNK_CHARS)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(Math.min(CHUNK_SIZE, entries.size()));
+                chars = 0;
+            }
+            chunk.add(cpe);
+            chars += size;
+        }
+        chunks.add(chunk);
+        return chunks;
     }
 
-    private void sendClasspathCommand(Collection<CPE> entries, boolean deleted) {
-        if(entries.isEmpty()) {
-            return;
+    private CompletableFuture<Void> deliverClasspathCommand(List<CPE> entries, boolean deleted, int sequence,
+                                                            boolean complete) {
+        final RequestManager requestManager = this.requestManager;
+        if (requestManager == null) {
+            return CompletableFuture.completedFuture(null);
         }
 
         ExecuteCommandParams commandParams = new ExecuteCommandParams();
         commandParams.setCommand(callbackCommandId);
 
-        Classpath classpath = new Classpath(Lists.newArrayList(entries));
+        Classpath classpath = new Classpath(entries);
         commandParams.setArguments(ClasspathArgument.argument(project.getName())
-                .projectUri(FileUtils.projectToUri(project)).classpath(classpath).deleted(deleted).arguments());
-
-        synchronized (requestManagerSync) {
-            if (requestManager != null) {
-                CompletableFuture<Object> result =
-                        Optional.ofNullable(requestManager.executeCommand(commandParams))
-                                .orElse(CompletableFuture.completedFuture("stopped"));
-                try {
-                    if (!"stopped".equals(result.get()) && !"done".equals(result.get())) {
+                .projectUri(FileUtils.projectToUri(project)).classpath(classpath).deleted(deleted)
+                .chunk(sequence, complete).arguments());
+
+        return Optional.ofNullable(requestManager.executeCommand(commandParams))
+                .orElse(CompletableFuture.completedFuture("stopped"))
+                .thenApply(Function.identity())
+                .orTimeout(DELIVERY_TIMEOUT, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error != null) {
+                        if (error.getCause() instanceof TimeoutException || error instanceof TimeoutException) {
+                            LOGGER.warn("executeCommand timed out for callback " + callbackCommandId
+                                    + " after " + DELIVERY_TIMEOUT + "ms");
+                        } else {
+                            LOGGER.error("executeCommand failed for callback " + callbackCommandId, error);
+                        }
+                    } else if (!"stopped".equals(result) && !"done".equals(result)) {
                         LOGGER.error("executeCommand failed for callback " + callbackCommandId
-                                + " with error code:" + result.get().toString());
+                                + " with error code:" + result);
                     }
-                } catch (ExecutionException | InterruptedException e) {
-                    LOGGER.error(e);
-                }
-            }
-        }
-    }
-
-    private class LSModuleRootListener implements ModuleRootListener {
-        private Set<CPE> before = Collections.emptySet();
-        private final Object lock = new Object();
-
-        @Override
-        public void rootsChanged(@NotNull ModuleRootEvent event) {
-            // Since the following code is async if there are two consective root change events there execution can
-            // happen paralelly. So we need to synchronize the execution so that only one async call will run at a
-            // given time.
-            executeOnIntellijPooledThread(() -> {
-                synchronized (lock) {
-                    Set<CPE> after = runReadAction(ClasspathListener.this::collectCPEs);
-                    sendClasspathCommand(Sets.difference(before, after), true);
-                    sendClasspathCommand(Sets.difference(after, before), false);
-                    updateBefore(after);
-                }
-                return null;
-            });
-        }
-
-        public void updateBefore(Set<CPE> before) {
-            this.before = before;
-        }
+                    return null;
+                });
     }
 }
@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.ide.vscode.commons.protocol.java.Classpath.CPE;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.executeOnIntellijPooledThread;
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.runReadAction;
+
+/**
+ * Project level classpath shared by all {@link ClasspathListener}s. The classpath is computed once per change and held
+ * as one immutable snapshot, which is fanned out to the subscribers whenever it changed. The per module differences
+ * only decide whether it changed, since the server takes every classpath it receives as the whole one. The model only
+ * tracks roots while it has subscribers.
+ */
+public final class ClasspathModel implements Disposable {
+    private static final Logger LOGGER = Logger.getInstance(ClasspathModel.class);
+    private static final long QUIET_PERIOD = Long.getLong("sts4.classpath.quiet-period", 1000);
+    private static final long MAX_DELAY = Long.getLong("sts4.classpath.max-delay", 10000);
+
+    private final Project project;
+    private final ClasspathSnapshotStore snapshotStore;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // a project re-import fires many root changes in a row, they are folded into a single classpath update.
+    private final CoalescingScheduler scheduler = new CoalescingScheduler(this::updateClasspath, QUIET_PERIOD,
+            MAX_DELAY);
+    private final Object lock = new Object();
+
+    private ModuleClasspathSnapshots snapshots;
+    private MessageBusConnection messageBusConnection;
+    private Set<CPE> current;
+    // true while the current snapshot is the one restored from the snapshot store.
+    private boolean restored;
+
+    public ClasspathModel(Project project) {
+        this.project = project;
+        this.snapshotStore = new ClasspathSnapshotStore(project);
+    }
+
+    public static ClasspathModel getInstance(Project project) {
+        return project.getService(ClasspathModel.class);
+    }
+
+    public interface Subscriber {
+        void classpathChanged(Set<CPE> classpath);
+    }
+
+    /**
+     * Adds the subscriber, which is notified about the current classpath right away if it is already known. Might
+     * compute the classpath, so this should not be called on the EDT.
+     */
+    public void subscribe(Subscriber subscriber) {
+        synchronized (lock) {
+            subscribers.add(subscriber);
+            if (current != null) {
+                subscriber.classpathChanged(current);
+            } else {
+                start();
+            }
+        }
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        synchronized (lock) {
+            if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Returns the current classpath snapshot or an empty set if it was not computed yet.
+     */
+    public Set<CPE> snapshot() {
+        synchronized (lock) {
+            return current == null ? Collections.emptySet() : current;
+        }
+    }
+
+    private void start() {
+        snapshots = new ModuleClasspathSnapshots(project);
+        messageBusConnection = project.getMessageBus().connect(this);
+        messageBusConnection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                if (!event.isCausedByFileTypesChange()) {
+                    scheduler.request();
+                }
+            }
+        });
+
+        // send the classpath of the last session right away and reconcile it once indexing is done, so that the
+        // server can start working before the project model is fully loaded.
+        final Set<CPE> cached = snapshotStore.load();
+        if (cached.isEmpty()) {
+            updateClasspath();
+        } else {
+            LOGGER.debug("Using cached classpath with " + cached.size() + " entries for " + project.getName());
+            current = ImmutableSet.copyOf(cached);
+            restored = true;
+            notifySubscribers(current);
+            DumbService.getInstance(project).runWhenSmart(() -> executeOnIntellijPooledThread(() -> {
+                updateClasspath();
+                return null;
+            }));
+        }
+    }
+
+    private void stop() {
+        scheduler.cancel();
+        if (messageBusConnection != null) {
+            messageBusConnection.disconnect();
+            messageBusConnection = null;
+        }
+        snapshots = null;
+        current = null;
+        restored = false;
+    }
+
+    private void updateClasspath() {
+        // A burst which arrives while an update is still running schedules another one, so the lock makes sure
+        // only one update will run at a given time.
+        synchronized (lock) {
+            if (snapshots == null || project.isDisposed()) {
+                return;
+            }
+
+            final ModuleClasspathSnapshots.Diff diff = runReadAction(snapshots::update);
+            final Set<CPE> after = snapshots.entries();
+            if (current == null || restored) {
+                final Set<CPE> before = current == null ? Collections.emptySet() : current;
+                if (!after.equals(before)) {
+                    notifySubscribers(after);
+                }
+                restored = false;
+            } else if (!diff.isEmpty()) {
+                notifySubscribers(after);
+            }
+            current = after;
+
+            if (!diff.isEmpty()) {
+                snapshotStore.save(after);
+            }
+        }
+    }
+
+    private void notifySubscribers(Set<CPE> classpath) {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.classpathChanged(classpath);
+            } catch (Exception e) {
+                LOGGER.error("Classpath subscriber failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.cancel();
+    }
+}
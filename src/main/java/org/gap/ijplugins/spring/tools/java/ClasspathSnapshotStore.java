@@ -0,0 +1,187 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.hash.Hashing;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import org.springframework.ide.vscode.commons.protocol.java.Classpath;
+import org.springframework.ide.vscode.commons.protocol.java.Classpath.CPE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the last classpath sent to the language server for a project under the IDE system directory, so that it can
+ * be sent right away on the next start while the actual classpath is still being computed.
+ * <p>
+ * The file holds a header with a format version and a hash of the deflated entry data, which is used to detect
+ * corrupted files and to skip rewriting an unchanged classpath.
+ */
+class ClasspathSnapshotStore {
+    private static final Logger LOGGER = Logger.getInstance(ClasspathSnapshotStore.class);
+    private static final int MAGIC = 0x53545343;
+    private static final int VERSION = 1;
+
+    private static final int FLAG_SYSTEM = 1;
+    private static final int FLAG_OWN = 1 << 1;
+    private static final int FLAG_TEST = 1 << 2;
+    private static final int FLAG_JAVA_CONTENT = 1 << 3;
+
+    private final Path file;
+    private long lastHash = 0;
+
+    ClasspathSnapshotStore(Project project) {
+        this.file = Paths.get(PathManager.getSystemPath(), "sts4", "classpath", project.getLocationHash() + ".bin");
+    }
+
+    Set<CPE> load() {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptySet();
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                LOGGER.info("Ignoring classpath snapshot with unknown format " + file);
+                return Collections.emptySet();
+            }
+            final long hash = in.readLong();
+            final byte[] data = in.readAllBytes();
+            if (hash != hash(data)) {
+                LOGGER.warn("Ignoring corrupted classpath snapshot " + file);
+                return Collections.emptySet();
+            }
+            lastHash = hash;
+            return read(data);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read classpath snapshot " + file, e);
+            return Collections.emptySet();
+        }
+    }
+
+    void save(Collection<CPE> entries) {
+        try {
+            final byte[] data = write(entries);
+            final long hash = hash(data);
+            if (hash == lastHash) {
+                return;
+            }
+
+            Files.createDirectories(file.getParent());
+            final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(hash);
+                out.write(data);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastHash = hash;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write classpath snapshot " + file, e);
+        }
+    }
+
+    private static long hash(byte[] data) {
+        return Hashing.murmur3_128().hashBytes(data).asLong();
+    }
+
+    private static byte[] write(Collection<CPE> entries) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(entries.size());
+            for (CPE cpe : entries) {
+                out.writeUTF(cpe.getKind());
+                out.writeUTF(cpe.getPath());
+                writeNullable(out, cpe.getOutputFolder());
+                writeNullable(out, cpe.getSourceContainerUrl() == null ? null : cpe.getSourceContainerUrl().toString());
+                writeNullable(out, cpe.getJavadocContainerUrl() == null ? null : cpe.getJavadocContainerUrl().toString());
+                out.writeByte((cpe.isSystem() ? FLAG_SYSTEM : 0) | (cpe.isOwn() ? FLAG_OWN : 0)
+                        | (cpe.isTest() ? FLAG_TEST : 0) | (cpe.isJavaContent() ? FLAG_JAVA_CONTENT : 0));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Set<CPE> read(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            final int size = in.readInt();
+            final Set<CPE> entries = new HashSet<>(size);
+            for (int i = 0; i < size; i++) {
+                final String kind = in.readUTF();
+                final String path = in.readUTF();
+                final String outputFolder = readNullable(in);
+                final String sourceUrl = readNullable(in);
+                final String javadocUrl = readNullable(in);
+                final int flags = in.readByte();
+
+                final boolean source = Classpath.ENTRY_KIND_SOURCE.equals(kind);
+                if (source && outputFolder == null) {
+                    continue;
+                }
+                final CPE cpe = source ? CPE.source(new File(path), new File(outputFolder)) : CPE.binary(path);
+                if (sourceUrl != null) {
+                    cpe.setSourceContainerUrl(new URL(sourceUrl));
+                }
+                if (javadocUrl != null) {
+                    cpe.setJavadocContainerUrl(new URL(javadocUrl));
+                }
+                cpe.setSystem((flags & FLAG_SYSTEM) != 0);
+                cpe.setOwn((flags & FLAG_OWN) != 0);
+                cpe.setTest((flags & FLAG_TEST) != 0);
+                cpe.setJavaContent((flags & FLAG_JAVA_CONTENT) != 0);
+                entries.add(cpe);
+            }
+            return entries;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
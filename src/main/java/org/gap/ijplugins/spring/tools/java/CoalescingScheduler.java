@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.executeOnIntellijPooledThread;
+
+/**
+ * Debounces bursts of requests into a single execution of a task. The task runs once no request arrived for the quiet
+ * period, but at the latest max delay after the first request of the burst, so that a steady stream of requests
+ * cannot postpone it forever.
+ */
+public class CoalescingScheduler {
+    private final Runnable task;
+    private final long quietPeriodMillis;
+    private final long maxDelayMillis;
+
+    private ScheduledFuture<?> pending;
+    private long burstStart = -1;
+    // identifies the latest scheduled run, a run which was replaced after it had already started must not touch state.
+    private long generation;
+
+    public CoalescingScheduler(Runnable task, long quietPeriodMillis, long maxDelayMillis) {
+        this.task = task;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxDelayMillis = Math.max(quietPeriodMillis, maxDelayMillis);
+    }
+
+    public synchronized void request() {
+        final long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        if (burstStart < 0) {
+            burstStart = now;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        final long delay = Math.min(quietPeriodMillis, Math.max(0, burstStart + maxDelayMillis - now));
+        final long scheduled = ++generation;
+        pending = AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> fire(scheduled), delay,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        burstStart = -1;
+    }
+
+    private void fire(long scheduled) {
+        synchronized (this) {
+            if (scheduled != generation) {
+                return;
+            }
+            pending = null;
+            burstStart = -1;
+        }
+        // the scheduled executor must only be used for short tasks.
+        executeOnIntellijPooledThread(() -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.JavaSdk;
+import com.intellij.openapi.projectRoots.JavaSdkVersion;
+import com.intellij.openapi.roots.LibraryOrderEntry;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.OrderEntry;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.model.java.JavaResourceRootType;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+import org.springframework.ide.vscode.commons.protocol.java.Classpath.CPE;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.gap.ijplugins.spring.tools.java.CommonUtils.fromFirst;
+import static org.gap.ijplugins.spring.tools.java.CommonUtils.toBinaryCPE;
+
+/**
+ * Classpath entries of a project kept per module. Each module snapshot remembers a cheap fingerprint of the module
+ * roots and order entries, and only modules whose fingerprint changed, or whose missing library roots appeared since,
+ * are recomputed on update. Entries are reference
+ * counted across modules, so that the project level difference can be derived from the changed modules alone.
+ * <p>
+ * This class is not thread safe and {@link #update()} must be called within a read action.
+ */
+class ModuleClasspathSnapshots {
+    private static final Logger LOGGER = Logger.getInstance(ModuleClasspathSnapshots.class);
+    private static final VirtualFile[] EMPTY_VIRTUAL_FILES = new VirtualFile[0];
+
+    private final Project project;
+    private final Map<Module, ModuleSnapshot> modules = new HashMap<>();
+    private final Multiset<CPE> entries = HashMultiset.create();
+    private Set<CPE> sdkEntries = Collections.emptySet();
+
+    ModuleClasspathSnapshots(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Returns all entries of the current snapshot.
+     */
+    Set<CPE> entries() {
+        return ImmutableSet.copyOf(entries.elementSet());
+    }
+
+    Diff update() {
+        final Diff diff = new Diff();
+        final Map<List<String>, LibraryRoots> libraryCache = new HashMap<>();
+        final Set<Module> current = new HashSet<>(Arrays.asList(ModuleManager.getInstance(project).getModules()));
+
+        int recomputed = 0;
+        for (Module module : current) {
+            final List<Object> fingerprint = fingerprint(module);
+            final ModuleSnapshot snapshot = modules.get(module);
+            if (snapshot == null || !snapshot.fingerprint.equals(fingerprint) || snapshot.hasAppearedRoots()) {
+                final Set<String> unresolvedUrls = new HashSet<>();
+                final Set<CPE> moduleEntries = collectModuleCPEs(module, libraryCache, unresolvedUrls);
+                replace(snapshot == null ? Collections.emptySet() : snapshot.entries, moduleEntries, diff);
+                modules.put(module, new ModuleSnapshot(fingerprint, moduleEntries, unresolvedUrls));
+                recomputed++;
+            }
+        }
+
+        modules.entrySet().removeIf(e -> {
+            if (!current.contains(e.getKey())) {
+                replace(e.getValue().entries, Collections.emptySet(), diff);
+                return true;
+            }
+            return false;
+        });
+
+        final Set<CPE> sdk = collectSdkCPEs();
+        if (!sdk.equals(sdkEntries)) {
+            replace(sdkEntries, sdk, diff);
+            sdkEntries = sdk;
+        }
+
+        LOGGER.debug("Classpath updated for " + recomputed + " of " + current.size() + " modules [added:"
+                + diff.added.size() + ", removed:" + diff.removed.size() + "]");
+        return diff;
+    }
+
+    private void replace(Set<CPE> before, Set<CPE> after, Diff diff) {
+        for (CPE cpe : before) {
+            if (!after.contains(cpe) && entries.remove(cpe, 1) == 1) {
+                // added by an earlier module in this update means it just moved between modules.
+                if (!diff.added.remove(cpe)) {
+                    diff.removed.add(cpe);
+                }
+            }
+        }
+        for (CPE cpe : after) {
+            if (!before.contains(cpe) && entries.add(cpe, 1) == 0) {
+                if (!diff.removed.remove(cpe)) {
+                    diff.added.add(cpe);
+                }
+            }
+        }
+    }
+
+    private List<Object> fingerprint(Module module) {
+        final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(module);
+        final List<Object> fingerprint = new ArrayList<>();
+        fingerprint.add(CommonUtils.outputDir(module));
+        fingerprint.add(CommonUtils.testOutputDir(module));
+        fingerprint.add(urls(moduleRootManager.getSourceRoots(JavaSourceRootType.SOURCE)));
+        fingerprint.add(urls(moduleRootManager.getSourceRoots(JavaResourceRootType.RESOURCE)));
+        fingerprint.add(urls(moduleRootManager.getSourceRoots(JavaSourceRootType.TEST_SOURCE)));
+        fingerprint.add(urls(moduleRootManager.getSourceRoots(JavaResourceRootType.TEST_RESOURCE)));
+        for (OrderEntry entry : moduleRootManager.getOrderEntries()) {
+            if (entry instanceof LibraryOrderEntry) {
+                fingerprint.add(libraryFingerprint((LibraryOrderEntry) entry));
+            }
+        }
+        return fingerprint;
+    }
+
+    private static List<String> libraryFingerprint(LibraryOrderEntry entry) {
+        final List<String> fingerprint = new ArrayList<>();
+        fingerprint.addAll(Arrays.asList(entry.getRootUrls(OrderRootType.CLASSES)));
+        fingerprint.add("|");
+        fingerprint.addAll(Arrays.asList(entry.getRootUrls(OrderRootType.SOURCES)));
+        fingerprint.add("|");
+        fingerprint.addAll(Arrays.asList(entry.getRootUrls(OrderRootType.DOCUMENTATION)));
+        return fingerprint;
+    }
+
+    private static List<String> urls(Collection<VirtualFile> files) {
+        final List<String> urls = new ArrayList<>(files.size());
+        files.forEach(f -> urls.add(f.getUrl()));
+        return urls;
+    }
+
+    private Set<CPE> collectModuleCPEs(Module m, Map<List<String>, LibraryRoots> libraryCache,
+                                       Set<String> unresolvedUrls) {
+        final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(m);
+        final Set<CPE> cpes = new HashSet<>();
+        final String outputUrl = CommonUtils.outputDir(m);
+        final String testOutputUrl = CommonUtils.testOutputDir(m);
+
+        if (outputUrl != null) {
+            moduleRootManager.getSourceRoots(JavaSourceRootType.SOURCE).stream()
+                    .map(f -> mapSourceRoot(f, outputUrl, true, false)).forEach(cpes::add);
+            moduleRootManager.getSourceRoots(JavaResourceRootType.RESOURCE).stream()
+                    .map(f -> mapSourceRoot(f, outputUrl, false, false)).forEach(cpes::add);
+        } else {
+            LOGGER.debug("outputUrl is null for module " + m.getName());
+        }
+
+        if (testOutputUrl != null) {
+            moduleRootManager.getSourceRoots(JavaSourceRootType.TEST_SOURCE).stream()
+                    .map(f -> mapSourceRoot(f, testOutputUrl, true, true)).forEach(cpes::add);
+            moduleRootManager.getSourceRoots(JavaResourceRootType.TEST_RESOURCE).stream()
+                    .map(f -> mapSourceRoot(f, testOutputUrl, false, true)).forEach(cpes::add);
+        } else {
+            LOGGER.debug("testOutputUrl is null for module " + m.getName());
+        }
+
+        // the same library is usually shared by many modules, so process it only once per update.
+        for (OrderEntry entry : moduleRootManager.getOrderEntries()) {
+            if (entry instanceof LibraryOrderEntry) {
+                final LibraryOrderEntry library = (LibraryOrderEntry) entry;
+                final LibraryRoots roots = libraryCache.computeIfAbsent(libraryFingerprint(library), k -> {
+                    final Set<CPE> libraryCPEs = new HashSet<>();
+                    processLibrary(libraryCPEs, false, library::getRootFiles);
+                    return new LibraryRoots(libraryCPEs, unresolvedClassRoots(library));
+                });
+                cpes.addAll(roots.entries);
+                unresolvedUrls.addAll(roots.unresolvedUrls);
+            }
+        }
+        return cpes;
+    }
+
+    // entries are built from the roots which exist, so a jar which appears later must recompute the module.
+    private static List<String> unresolvedClassRoots(LibraryOrderEntry entry) {
+        final Set<String> resolved = new HashSet<>();
+        for (VirtualFile file : entry.getRootFiles(OrderRootType.CLASSES)) {
+            resolved.add(file.getUrl());
+        }
+        final List<String> unresolved = new ArrayList<>();
+        for (String url : entry.getRootUrls(OrderRootType.CLASSES)) {
+            if (!resolved.contains(url)) {
+                unresolved.add(url);
+            }
+        }
+        return unresolved;
+    }
+
+    private Set<CPE> collectSdkCPEs() {
+        final Set<CPE> cpes = new HashSet<>();
+        processLibrary(cpes, true, getSDKClasspathFiles(ProjectRootManager.getInstance(project)));
+        return cpes;
+    }
+
+    @NotNull
+    private Function<OrderRootType, VirtualFile[]> getSDKClasspathFiles(ProjectRootManager projectRootManager) {
+        return Optional.ofNullable(projectRootManager.getProjectSdk()).map(sdk -> {
+            if (JavaSdk.getInstance().isOfVersionOrHigher(sdk, JavaSdkVersion.JDK_1_9)) {
+                return (Function<OrderRootType, VirtualFile[]>) orderRootType -> {
+                    if (orderRootType == OrderRootType.CLASSES) {
+                        final File file = new File(sdk.getHomePath(), "lib/jrt-fs.jar");
+                        final VirtualFile fsFile = LocalFileSystem.getInstance().findFileByIoFile(file);
+                        return new VirtualFile[]{fsFile};
+                    } else {
+                        return sdk.getRootProvider().getFiles(orderRootType);
+                    }
+                };
+            }
+            return (Function<OrderRootType, VirtualFile[]>) sdk.getRootProvider()::getFiles;
+        }).orElse(ort -> EMPTY_VIRTUAL_FILES);
+    }
+
+    private void processLibrary(Set<CPE> cpes, boolean sdk, Function<OrderRootType, VirtualFile[]> files) {
+        String sourcePath = fromFirst(files.apply(OrderRootType.SOURCES), VirtualFile::getUrl).orElse("");
+        String javadocPath = fromFirst(files.apply(OrderRootType.DOCUMENTATION), VirtualFile::getUrl).orElse("");
+
+        Arrays.stream(files.apply(OrderRootType.CLASSES)).map(f -> {
+            CPE cpe = toBinaryCPE(f);
+            try {
+                cpe.setJavadocContainerUrl(new File(javadocPath).toURI().toURL());
+                cpe.setSourceContainerUrl(new File(sourcePath).toURI().toURL());
+            } catch (MalformedURLException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+            cpe.setOwn(false);
+            cpe.setSystem(sdk);
+            cpe.setJavaContent(true);
+            return cpe;
+        }).forEach(cpes::add);
+    }
+
+    private CPE mapSourceRoot(VirtualFile file, String outputUrl, boolean isJava, boolean isTest) {
+        CPE cpe = CPE.source(new File(file.getPath()), new File(outputUrl));
+        cpe.setOwn(true);
+        cpe.setTest(isTest);
+        cpe.setSystem(false);
+        cpe.setJavaContent(isJava);
+        return cpe;
+    }
+
+    static final class Diff {
+        final Set<CPE> added = new HashSet<>();
+        final Set<CPE> removed = new HashSet<>();
+
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private static final class LibraryRoots {
+        private final Set<CPE> entries;
+        private final List<String> unresolvedUrls;
+
+        private LibraryRoots(Set<CPE> entries, List<String> unresolvedUrls) {
+            this.entries = entries;
+            this.unresolvedUrls = unresolvedUrls;
+        }
+    }
+
+    private static final class ModuleSnapshot {
+        private final List<Object> fingerprint;
+        private final Set<CPE> entries;
+        private final Set<String> unresolvedUrls;
+
+        private ModuleSnapshot(List<Object> fingerprint, Set<CPE> entries, Set<String> unresolvedUrls) {
+            this.fingerprint = fingerprint;
+            this.entries = entries;
+            this.unresolvedUrls = unresolvedUrls;
+        }
+
+        private boolean hasAppearedRoots() {
+            final VirtualFileManager fileManager = VirtualFileManager.getInstance();
+            return unresolvedUrls.stream().anyMatch(url -> fileManager.findFileByUrl(url) != null);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static org.gap.ijplugins.spring.tools.ApplicationUtils.runReadAction;
+
+/**
+ * Project level package name index backed by a {@link PackageTrie}. Packages are collected from module source roots,
+ * libraries and the SDK, and kept per root so that a root change only walks the roots which were added. Module source
+ * roots are walked again when directories below them are created, deleted, moved or renamed.
+ */
+public final class PackageSearch implements Disposable {
+    private static final Logger LOGGER = Logger.getInstance(PackageSearch.class);
+    private static final int DEFAULT_LIMIT = Integer.getInteger("sts4.java.search-packages.limit", 200);
+
+    private final Project project;
+    private final PackageTrie trie = new PackageTrie();
+    private final Map<String, Set<String>> packagesByRoot = new HashMap<>();
+    // module source roots change while editing, so they are walked again when directories below them change.
+    private volatile Set<String> sourceRootUrls = Collections.emptySet();
+    private final Set<String> dirtyRoots = ConcurrentHashMap.newKeySet();
+    // a single thread applies root updates in order, queries only take the trie lock.
+    private final ExecutorService updater =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("STS Package Index", 1);
+
+    public PackageSearch(Project project) {
+        this.project = project;
+        final MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                scheduleUpdate();
+            }
+        });
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                if (markDirtyRoots(events)) {
+                    scheduleUpdate();
+                }
+            }
+        });
+        scheduleUpdate();
+    }
+
+    public static PackageSearch getInstance(Project project) {
+        return project.getService(PackageSearch.class);
+    }
+
+    public List<String> search(String prefix) {
+        return search(prefix, DEFAULT_LIMIT);
+    }
+
+    public List<String> search(String prefix, int limit) {
+        synchronized (trie) {
+            return trie.search(StringUtil.notNullize(prefix), limit);
+        }
+    }
+
+    private void scheduleUpdate() {
+        updater.execute(() -> {
+            try {
+                update();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to update package index for project " + project.getName(), e);
+            }
+        });
+    }
+
+    private boolean markDirtyRoots(List<? extends VFileEvent> events) {
+        final Set<String> rootUrls = sourceRootUrls;
+        if (rootUrls.isEmpty()) {
+            return false;
+        }
+
+        boolean dirty = false;
+        for (VFileEvent event : events) {
+            if (event instanceof VFileContentChangeEvent
+                    || (event.getFile() != null && event.getFile().isValid() && !event.getFile().isDirectory())) {
+                continue;
+            }
+            final String oldPath = event instanceof VFileMoveEvent ? ((VFileMoveEvent) event).getOldPath()
+                    : event instanceof VFilePropertyChangeEvent ? ((VFilePropertyChangeEvent) event).getOldPath()
+                    : null;
+            for (String path : oldPath == null ? Collections.singletonList(event.getPath())
+                    : Arrays.asList(event.getPath(), oldPath)) {
+                final String url = VfsUtilCore.pathToUrl(path);
+                for (String rootUrl : rootUrls) {
+                    if (url.startsWith(rootUrl + "/")) {
+                        dirty |= dirtyRoots.add(rootUrl);
+                    }
+                }
+            }
+        }
+        return dirty;
+    }
+
+    private void update() {
+        if (project.isDisposed()) {
+            return;
+        }
+
+        final Map<String, VirtualFile> roots = runReadAction(this::collectRoots);
+        final List<String> removed = new ArrayList<>();
+        for (String url : packagesByRoot.keySet()) {
+            if (!roots.containsKey(url)) {
+                removed.add(url);
+            }
+        }
+
+        for (String url : removed) {
+            final Set<String> packages = packagesByRoot.remove(url);
+            synchronized (trie) {
+                packages.forEach(trie::remove);
+            }
+        }
+
+        final Set<String> sourceRoots = runReadAction(this::collectSourceRootUrls);
+        sourceRootUrls = sourceRoots;
+        for (String url : new ArrayList<>(dirtyRoots)) {
+            dirtyRoots.remove(url);
+            final Set<String> previous = packagesByRoot.remove(url);
+            if (previous != null) {
+                synchronized (trie) {
+                    previous.forEach(trie::remove);
+                }
+            }
+        }
+
+        roots.forEach((url, root) -> {
+            if (!packagesByRoot.containsKey(url)) {
+                final Set<String> packages = runReadAction(() -> collectPackages(root));
+                packagesByRoot.put(url, packages);
+                synchronized (trie) {
+                    packages.forEach(trie::add);
+                }
+            }
+        });
+        LOGGER.debug("Package index updated [roots:" + packagesByRoot.size() + ", packages:" + trie.size() + "]");
+    }
+
+    private Map<String, VirtualFile> collectRoots() {
+        final Map<String, VirtualFile> roots = new HashMap<>();
+        Arrays.asList(ModuleManager.getInstance(project).getModules()).forEach(m -> {
+            final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(m);
+            moduleRootManager.getSourceRoots(JavaSourceRootType.SOURCE).forEach(f -> roots.put(f.getUrl(), f));
+            moduleRootManager.getSourceRoots(JavaSourceRootType.TEST_SOURCE).forEach(f -> roots.put(f.getUrl(), f));
+        });
+        Arrays.stream(OrderEnumerator.orderEntries(project).librariesOnly().classes().getRoots())
+                .forEach(f -> roots.put(f.getUrl(), f));
+        Arrays.stream(OrderEnumerator.orderEntries(project).sdkOnly().classes().getRoots())
+                .forEach(f -> roots.put(f.getUrl(), f));
+        return roots;
+    }
+
+    private Set<String> collectSourceRootUrls() {
+        final Set<String> urls = new HashSet<>();
+        Arrays.asList(ModuleManager.getInstance(project).getModules()).forEach(m -> {
+            final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(m);
+            moduleRootManager.getSourceRoots(JavaSourceRootType.SOURCE).forEach(f -> urls.add(f.getUrl()));
+            moduleRootManager.getSourceRoots(JavaSourceRootType.TEST_SOURCE).forEach(f -> urls.add(f.getUrl()));
+        });
+        return Collections.unmodifiableSet(urls);
+    }
+
+    private Set<String> collectPackages(VirtualFile root) {
+        if (!root.isValid()) {
+            return Collections.emptySet();
+        }
+
+        final Set<String> packages = new HashSet<>();
+        VfsUtilCore.iterateChildrenRecursively(root, f -> f.equals(root)
+                || (f.isDirectory() && isPackageSegment(f.getName())), f -> {
+            if (!f.equals(root)) {
+                final String path = VfsUtilCore.getRelativePath(f, root, '.');
+                if (path != null) {
+                    packages.add(path);
+                }
+            }
+            return true;
+        });
+        return packages;
+    }
+
+    private static boolean isPackageSegment(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void dispose() {
+        // the message bus connection is bound to this service, pending updates bail out once the project is gone.
+    }
+}
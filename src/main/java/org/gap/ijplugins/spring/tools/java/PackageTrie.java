@@ -0,0 +1,122 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trie of dotted package names split at segment boundaries. Every package is reference counted so that the same
+ * package contributed by several roots is only removed once the last root is gone. This class is not thread safe.
+ */
+public class PackageTrie {
+    private final Node root = new Node();
+    private int size = 0;
+
+    public void add(String packageName) {
+        Node node = root;
+        for (String segment : packageName.split("\\.")) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        if (node.count++ == 0) {
+            size++;
+        }
+    }
+
+    public void remove(String packageName) {
+        remove(root, packageName.split("\\."), 0);
+    }
+
+    private boolean remove(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            if (node.count > 0 && --node.count == 0) {
+                size--;
+            }
+        } else {
+            final Node child = node.children.get(segments[index]);
+            if (child != null && remove(child, segments, index + 1)) {
+                node.children.remove(segments[index]);
+            }
+        }
+        return node.count == 0 && node.children.isEmpty();
+    }
+
+    /**
+     * Returns packages in lexical order which start with the given prefix. The last segment of the prefix can be
+     * partial, for example {@code org.springframework.bo} matches {@code org.springframework.boot}.
+     */
+    public List<String> search(String prefix, int limit) {
+        final List<String> result = new ArrayList<>();
+        final int lastDot = prefix.lastIndexOf('.');
+        final String partial = prefix.substring(lastDot + 1);
+
+        Node node = root;
+        final StringBuilder path = new StringBuilder(prefix.length() + 32);
+        if (lastDot > 0) {
+            for (String segment : prefix.substring(0, lastDot).split("\\.")) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    return result;
+                }
+                path.append(segment).append('.');
+            }
+        }
+
+        for (Map.Entry<String, Node> entry : node.children.tailMap(partial).entrySet()) {
+            if (!entry.getKey().startsWith(partial) || result.size() >= limit) {
+                break;
+            }
+            collect(entry.getValue(), path, entry.getKey(), result, limit);
+        }
+        return result;
+    }
+
+    private void collect(Node node, StringBuilder path, String segment, List<String> result, int limit) {
+        final int length = path.length();
+        path.append(segment);
+        if (node.count > 0 && result.size() < limit) {
+            result.add(path.toString());
+        }
+        path.append('.');
+        for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            collect(entry.getValue(), path, entry.getKey(), result, limit);
+        }
+        path.setLength(length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Node {
+        private final TreeMap<String, Node> children = new TreeMap<>();
+        private int count = 0;
+    }
+}
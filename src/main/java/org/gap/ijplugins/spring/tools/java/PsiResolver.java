@@ -26,15 +26,25 @@ package org.gap.ijplugins.spring.tools.java;
 
 import com.google.common.base.Strings;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import org.eclipse.lsp4j.jsonrpc.messages.Tuple;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class PsiResolver {
+    private static final Key<CachedValue<Map<String, PsiMember>>> MEMBER_INDEX = Key.create("sts.member.index");
+
     private final Project project;
 
     public PsiResolver(Project project) {
@@ -45,28 +55,72 @@ public class PsiResolver {
         // Lcom/example/demo/BootBean;.setAge(LString;)V
 
         String[] bindings = bindingKey.split("\\.");
-        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(JavaUtils.typeBindingKeyToFqName(bindings[0]),
-                GlobalSearchScope.allScope(project));
+        PsiClass psiClass = resolveClass(bindings[0]);
 
         PsiMember member = null;
+        if(psiClass != null && bindings.length > 1) {
+            member = resolveMember(psiClass, bindings[1]);
+        }
+       return Tuple.two(psiClass, member);
+    }
+
+    /**
+     * Resolves the class for a type binding key, preferring the source class if available.
+     */
+    public PsiClass resolveClass(String typeBinding) {
+        return toSourceClass(findClass(typeBinding));
+    }
+
+    public PsiClass findClass(String typeBinding) {
+        return JavaPsiFacade.getInstance(project).findClass(JavaUtils.typeBindingKeyToFqName(typeBinding),
+                GlobalSearchScope.allScope(project));
+    }
+
+    public PsiClass toSourceClass(PsiClass psiClass) {
         if(psiClass != null) {
             // try to resolve source psi class if available
             psiClass = (PsiClass) psiClass.getNavigationElement();
-            if(bindings.length > 1 && !Strings.isNullOrEmpty(bindings[1])) {
-                final String memberBinding = bindings[1];
-                if(memberBinding.matches(".*\\(.*\\).*")) {
-                    member = Arrays.stream(psiClass.getAllMethods())
-                            .map(m -> Tuple.two(JvmBindings.getBindingKey(m), m))
-                            .filter(t -> t.getFirst().endsWith(memberBinding))
-                            .findFirst().map(t -> t.getSecond()).orElse(null);
-                } else {
-                    member = Arrays.stream(psiClass.getAllFields())
-                            .map(m -> Tuple.two(JvmBindings.getBindingKey(m), m))
-                            .filter(t -> memberBinding.equals(t.getFirst()))
-                            .findFirst().map(t -> t.getSecond()).orElse(null);
-                }
-            }
         }
-       return Tuple.two(psiClass, member);
+        return psiClass;
+    }
+
+    /**
+     * Resolves a member of an already resolved class from the part of the binding key following the type binding.
+     */
+    public PsiMember resolveMember(PsiClass psiClass, String memberBinding) {
+        if(Strings.isNullOrEmpty(memberBinding)) {
+            return null;
+        }
+        return CachedValuesManager.getCachedValue(psiClass, MEMBER_INDEX,
+                () -> CachedValueProvider.Result.create(memberIndex(psiClass), PsiModificationTracker.MODIFICATION_COUNT))
+                .get(memberBinding);
+    }
+
+    // indexes all methods and fields including inherited ones by their binding key without the type binding part,
+    // the first member wins the same way as the previous linear search did.
+    private static Map<String, PsiMember> memberIndex(PsiClass psiClass) {
+        final PsiMethod[] methods = psiClass.getAllMethods();
+        final PsiField[] fields = psiClass.getAllFields();
+        final Map<String, PsiMember> index = new HashMap<>(methods.length + fields.length);
+        final BindingKeyEncoder encoder = new BindingKeyEncoder();
+        for (PsiMethod method : methods) {
+            index.putIfAbsent(memberBindingOf(encoder.methodKey(method)), method);
+        }
+        for (PsiField field : fields) {
+            index.putIfAbsent(memberBindingOf(encoder.fieldKey(field)), field);
+        }
+        return index;
+    }
+
+    private static String memberBindingOf(String bindingKey) {
+        return bindingKey.substring(typeBindingOf(bindingKey).length() + 1);
+    }
+
+    /**
+     * Returns the type binding part of a binding key, which is the whole key for type bindings.
+     */
+    public static String typeBindingOf(String bindingKey) {
+        final int index = bindingKey.indexOf('.');
+        return index < 0 ? bindingKey : bindingKey.substring(0, index);
     }
 }
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.ide.vscode.commons.protocol.java.TypeData;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Project level cache of {@link TypeData} keyed by type binding key. The whole cache is dropped whenever the PSI
+ * modification count changes, which covers class structure and classpath changes.
+ */
+public final class TypeDataCache {
+    private static final Logger LOGGER = Logger.getInstance(TypeDataCache.class);
+    private static final int MAX_SIZE = Integer.getInteger("sts4.java.type-cache.size", 2000);
+
+    private final PsiModificationTracker modificationTracker;
+    private final Cache<String, TypeData> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile long modificationCount = -1;
+
+    public TypeDataCache(Project project) {
+        this.modificationTracker = PsiModificationTracker.SERVICE.getInstance(project);
+        this.cache = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+    }
+
+    public static TypeDataCache getInstance(Project project) {
+        return project.getService(TypeDataCache.class);
+    }
+
+    /**
+     * Must be called within a read action so that the modification count cannot change while the loader runs.
+     */
+    @Nullable
+    public TypeData get(String bindingKey, Function<String, TypeData> loader) {
+        final long stamp = validate();
+        TypeData data = cache.getIfPresent(bindingKey);
+        if (data != null) {
+            hits.incrementAndGet();
+            return data;
+        }
+
+        misses.incrementAndGet();
+        data = loader.apply(bindingKey);
+        if (data != null && stamp == currentModificationCount()) {
+            cache.put(bindingKey, data);
+        }
+        return data;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private long validate() {
+        final long current = currentModificationCount();
+        if (current != modificationCount) {
+            synchronized (this) {
+                if (current != modificationCount) {
+                    cache.invalidateAll();
+                    modificationCount = current;
+                    LOGGER.debug("TypeData cache invalidated [hits:" + hits.get() + ", misses:" + misses.get() + "]");
+                }
+            }
+        }
+        return current;
+    }
+
+    private long currentModificationCount() {
+        return modificationTracker.getModificationCount();
+    }
+}
@@ -98,14 +98,23 @@ public class TypeProvider {
 
     private final PsiManager psiManager;
     private final Project project;
+    private final TypeDataCache cache;
 
     public TypeProvider(Project project) {
         this.project = project;
         this.psiManager = PsiManager.getInstance(project);
+        this.cache = TypeDataCache.getInstance(project);
     }
 
     public TypeData typeDataFor(String typeBinding) {
-        return ApplicationUtil.tryRunReadAction(() -> processTypeInfo(typeBinding));
+        return ApplicationUtil.tryRunReadAction(() -> cache.get(typeBinding, this::processTypeInfo));
+    }
+
+    /**
+     * Same as {@link #typeDataFor(String)} for callers which already resolved the class of the binding.
+     */
+    public TypeData typeDataFor(PsiClass psiClass, String typeBinding) {
+        return ApplicationUtil.tryRunReadAction(() -> cache.get(typeBinding, b -> processTypeInfo(psiClass, b)));
     }
 
     private TypeData processTypeInfo(String typeBinding) {
@@ -113,12 +122,17 @@ public class TypeProvider {
         if (psiClass == null) {
             return null;
         }
+        return processTypeInfo(psiClass, typeBinding);
+    }
+
+    private TypeData processTypeInfo(PsiClass psiClass, String typeBinding) {
+        final BindingKeyEncoder encoder = new BindingKeyEncoder();
         TypeData data = new TypeData();
         data.setName(psiClass.getName());
         data.setLabel(data.getName());
 
         if (PsiUtil.isInnerClass(psiClass)) {
-            data.setDeclaringType(JvmBindings.getBindingKey(psiClass));
+            data.setDeclaringType(encoder.classKey(psiClass));
         }
         data.setFlags(PsiUtil.getAccessLevel(psiClass.getModifierList()));
 
@@ -128,14 +142,14 @@ public class TypeProvider {
         data.setInterface(psiClass.isInterface());
         data.setEnum(psiClass.isEnum());
         if (psiClass.getSuperClass() != null) {
-            data.setSuperClassName(JvmBindings.getBindingKey(psiClass.getSuperClass()));
+            data.setSuperClassName(encoder.classKey(psiClass.getSuperClass()));
         }
         data.setSuperInterfaceNames(Arrays.stream(psiClass.getInterfaces())
-                .map(i -> JvmBindings.getBindingKey(i)).toArray(i -> new String[i]));
+                .map(encoder::classKey).toArray(i -> new String[i]));
 
         data.setBindingKey(typeBinding);
-        data.setFields(mapFields(psiClass.getFields()));
-        data.setMethods(mapMethods(psiClass.getMethods()));
+        data.setFields(mapFields(psiClass.getFields(), encoder));
+        data.setMethods(mapMethods(psiClass.getMethods(), encoder));
         data.setAnnotations(mapAnnotations(psiClass.getAnnotations()));
         data.setClasspathEntry(findCPE(psiClass));
         return data;
@@ -186,53 +200,53 @@ public class TypeProvider {
         }).collect(Collectors.toList());
     }
 
-    private List<FieldData> mapFields(PsiField[] fields) {
+    private List<FieldData> mapFields(PsiField[] fields, BindingKeyEncoder encoder) {
         return Arrays.stream(fields).map(f -> {
             FieldData data = new FieldData();
             data.setName(f.getName());
             data.setLabel(data.getName());
 
-            data.setDeclaringType(JvmBindings.getBindingKey(f.getContainingClass()));
+            data.setDeclaringType(encoder.classKey(f.getContainingClass()));
             data.setFlags(PsiUtil.getAccessLevel(f.getModifierList()));
 
-            data.setBindingKey(JvmBindings.getBindingKey(f));
-            data.setType(mapType(f.getType()));
+            data.setBindingKey(encoder.fieldKey(f));
+            data.setType(mapType(f.getType(), encoder));
             data.setEnumConstant(f instanceof PsiEnumConstant);
             data.setAnnotations(mapAnnotations(f.getAnnotations()));
             return data;
         }).collect(Collectors.toList());
     }
 
-    private List<MethodData> mapMethods(PsiMethod[] methods) {
+    private List<MethodData> mapMethods(PsiMethod[] methods, BindingKeyEncoder encoder) {
         return Arrays.stream(methods).map(m -> {
             MethodData data = new MethodData();
             data.setName(m.getName());
             data.setLabel(data.getName());
 
-            data.setDeclaringType(JvmBindings.getBindingKey(m.getContainingClass()));
+            data.setDeclaringType(encoder.classKey(m.getContainingClass()));
             data.setFlags(PsiUtil.getAccessLevel(m.getModifierList()));
 
-            data.setBindingKey(JvmBindings.getBindingKey(m));
+            data.setBindingKey(encoder.methodKey(m));
             data.setConstructor(m.isConstructor());
-            data.setReturnType(mapType(m.getReturnType()));
-            data.setParameters(Arrays.stream(m.getParameters()).map(p -> p.getType()).map(this::mapType).collect(Collectors.toList()));
+            data.setReturnType(mapType(m.getReturnType(), encoder));
+            data.setParameters(Arrays.stream(m.getParameters()).map(p -> mapType(p.getType(), encoder)).collect(Collectors.toList()));
             data.setAnnotations(mapAnnotations(m.getAnnotations()));
             return data;
         }).collect(Collectors.toList());
     }
 
-    private JavaTypeData mapType(JvmType type) {
+    private JavaTypeData mapType(JvmType type, BindingKeyEncoder encoder) {
         JavaTypeData data = new JavaTypeData();
-        data.setName(JvmBindings.getGeneralTypeBindingKey(type));
-        fillKindAndExtra(type, data);
+        data.setName(encoder.typeKey(type));
+        fillKindAndExtra(type, data, encoder);
         return data;
     }
 
-    private void fillKindAndExtra(JvmType type, JavaTypeData data) {
+    private void fillKindAndExtra(JvmType type, JavaTypeData data, BindingKeyEncoder encoder) {
         if (type instanceof PsiArrayType) {
             data.setKind(JavaTypeKind.ARRAY);
             final PsiArrayType arrayType = (PsiArrayType) type;
-            data.setExtras(Maps.newLinkedHashMap(ImmutableMap.of("component", JvmBindings.getGeneralTypeBindingKey(arrayType.getComponentType()),
+            data.setExtras(Maps.newLinkedHashMap(ImmutableMap.of("component", encoder.typeKey(arrayType.getComponentType()),
                     "dimensions", String.valueOf(arrayType.getArrayDimensions()))));
         } else if (type instanceof PsiPrimitiveType) {
             data.setKind(primitiveKindMapping.get(((PsiPrimitiveType) type).getKind()));
@@ -240,7 +254,7 @@ public class TypeProvider {
             data.setKind(JavaTypeKind.PARAMETERIZED);
             JavaTypeData owner = new JavaTypeData();
             owner.setKind(JavaTypeKind.CLASS);
-            owner.setName(JvmBindings.getBindingKey(((PsiTypeParameter) type).getOwner().getContainingClass()));
+            owner.setName(encoder.classKey(((PsiTypeParameter) type).getOwner().getContainingClass()));
             data.setExtras(Maps.newLinkedHashMap(ImmutableMap.of("owner", owner)));
         }
     }
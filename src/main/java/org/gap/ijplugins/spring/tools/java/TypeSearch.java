@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2020 Gayan Perera
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Contributors:
+ *     Gayan Perera <gayanper@gmail.com> - initial API and implementation
+ */
+
+package org.gap.ijplugins.spring.tools.java;
+
+import com.google.common.base.Strings;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.codeStyle.MinusculeMatcher;
+import com.intellij.psi.codeStyle.NameUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prefix and camel hump search over the short class name index. Names are matched without touching PSI, and
+ * {@link PsiClass} instances are only resolved for the names which make it into the result.
+ */
+public class TypeSearch {
+    private static final int DEFAULT_LIMIT = Integer.getInteger("sts4.java.search-types.limit", 200);
+
+    private final Project project;
+
+    public TypeSearch(Project project) {
+        this.project = project;
+    }
+
+    public PsiClass[] search(String term) {
+        return search(term, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Must be called within a read action. Checks for cancellation while walking the name index.
+     */
+    public PsiClass[] search(String term, int limit) {
+        if (Strings.isNullOrEmpty(term) || limit <= 0) {
+            return PsiClass.EMPTY_ARRAY;
+        }
+
+        // a qualified term such as "org.example.Foo" matches the short name and filters on the package prefix.
+        final int lastDot = term.lastIndexOf('.');
+        final String namePattern = term.substring(lastDot + 1);
+        final String qualifierPrefix = lastDot > 0 ? term.substring(0, lastDot + 1) : null;
+
+        final GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        final PsiShortNamesCache cache = PsiShortNamesCache.getInstance(project);
+        // the package prefix is only known per class, so names cannot be capped before it is applied.
+        final Set<String> names = matchingNames(cache, scope, namePattern,
+                qualifierPrefix == null ? limit : Integer.MAX_VALUE);
+
+        final List<PsiClass> result = new ArrayList<>(Math.min(limit, names.size()));
+        for (String name : names) {
+            cache.processClassesWithName(name, c -> {
+                ProgressManager.checkCanceled();
+                if (qualifierPrefix == null || Strings.nullToEmpty(c.getQualifiedName()).startsWith(qualifierPrefix)) {
+                    result.add(c);
+                }
+                return result.size() < limit;
+            }, scope, null);
+
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result.toArray(PsiClass.EMPTY_ARRAY);
+    }
+
+    private Set<String> matchingNames(PsiShortNamesCache cache, GlobalSearchScope scope, String pattern, int limit) {
+        final Set<String> names = new LinkedHashSet<>();
+        if (pattern.isEmpty()) {
+            return names;
+        }
+
+        // exact matches are always listed first, so past the limit the walk only looks for the exact name.
+        final boolean[] exact = {false};
+        final MinusculeMatcher matcher = NameUtil.buildMatcher(pattern, NameUtil.MatchingCaseSensitivity.NONE);
+        cache.processAllClassNames(name -> {
+            ProgressManager.checkCanceled();
+            if (pattern.equals(name)) {
+                exact[0] = true;
+            } else if (names.size() < limit && matcher.matches(name)) {
+                names.add(name);
+            }
+            return !exact[0] || names.size() < limit;
+        }, scope, null);
+
+        if (!exact[0]) {
+            return names;
+        }
+        final Set<String> result = new LinkedHashSet<>();
+        result.add(pattern);
+        result.addAll(names);
+        return result;
+    }
+}
@@ -24,8 +24,14 @@
 
 package org.gap.ijplugins.spring.tools.lang;
 
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.gap.ijplugins.spring.tools.util.Throwables;
 import org.jetbrains.annotations.NotNull;
@@ -34,38 +40,85 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
 
 public class StsLanguageValidator {
     private static final String NS = "http://www.springframework.org/schema/beans";
+    // the root element is expected after the prolog and license headers, the rest of the file is never inspected.
+    private static final int SNIFF_LIMIT = Integer.getInteger("sts4.xml.sniff-limit", 16 * 1024);
+    private static final Key<Pair<Long, Boolean>> SPRING_BEAN_FILE = Key.create("sts.spring.bean.file");
 
     private static final Logger LOGGER = Logger.getInstance(StsLanguageValidator.class);
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
 
     public boolean isXmlSpringBeanFile(@NotNull VirtualFile virtualFile, @NotNull Project project) {
-        if ("xml".equalsIgnoreCase(virtualFile.getExtension())) {
-            XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-            inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
-            XMLStreamReader xmlStreamReader = null;
-            try (InputStream inputStream = virtualFile.getInputStream()) {
-                xmlStreamReader = inputFactory.createXMLStreamReader(inputStream);
-                while (xmlStreamReader.hasNext()) {
-                    int elementType = xmlStreamReader.next();
-                    if (elementType == XMLStreamConstants.START_ELEMENT) {
-                        if (NS.equals(xmlStreamReader.getNamespaceURI())) {
-                            return true;
-                        }
-                        break;
-                    }
+        if (!"xml".equalsIgnoreCase(virtualFile.getExtension())) {
+            return false;
+        }
+
+        // project files are answered by the index, everything else or anything during indexing is sniffed.
+        if (!DumbService.isDumb(project)) {
+            try {
+                final Boolean indexed = ReadAction.compute(() -> !project.isDisposed()
+                        && ProjectFileIndex.getInstance(project).isInContent(virtualFile)
+                        ? SpringXmlFileIndex.isSpringBeanFile(project, virtualFile) : null);
+                if (indexed != null) {
+                    return indexed;
+                }
+            } catch (IndexNotReadyException e) {
+                LOGGER.debug("Index is not ready, sniffing " + virtualFile.getPath());
+            }
+        }
+
+        final long stamp = virtualFile.getModificationStamp();
+        final Pair<Long, Boolean> cached = virtualFile.getUserData(SPRING_BEAN_FILE);
+        if (cached != null && cached.first == stamp) {
+            return cached.second;
+        }
+        final boolean result = hasSpringBeansRoot(virtualFile);
+        virtualFile.putUserData(SPRING_BEAN_FILE, Pair.create(stamp, result));
+        return result;
+    }
+
+    private static boolean hasSpringBeansRoot(VirtualFile virtualFile) {
+        final byte[] head;
+        try (InputStream inputStream = virtualFile.getInputStream()) {
+            head = inputStream.readNBytes(SNIFF_LIMIT);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read xml file", e);
+            return false;
+        }
+        return isSpringBeansContent(head, virtualFile.getPath());
+    }
+
+    static boolean isSpringBeansContent(byte[] content, String path) {
+        XMLStreamReader xmlStreamReader = null;
+        try {
+            xmlStreamReader = INPUT_FACTORY.createXMLStreamReader(
+                    new ByteArrayInputStream(content, 0, Math.min(content.length, SNIFF_LIMIT)));
+            while (xmlStreamReader.hasNext()) {
+                int elementType = xmlStreamReader.next();
+                if (elementType == XMLStreamConstants.START_ELEMENT) {
+                    return NS.equals(xmlStreamReader.getNamespaceURI());
                 }
-            } catch (IOException | XMLStreamException e) {
-                LOGGER.warn("Failed to process xml file", e);
-            } finally {
-                Optional.ofNullable(xmlStreamReader)
-                        .ifPresent(Throwables.fromThrowable(XMLStreamReader::close, LOGGER::warn));
             }
+        } catch (XMLStreamException e) {
+            // a root element that starts beyond the sniff limit ends up here as well.
+            LOGGER.debug("Failed to process xml file " + path, e);
+        } finally {
+            Optional.ofNullable(xmlStreamReader)
+                    .ifPresent(Throwables.fromThrowable(XMLStreamReader::close, LOGGER::warn));
         }
         return false;
     }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        return inputFactory;
+    }
 }